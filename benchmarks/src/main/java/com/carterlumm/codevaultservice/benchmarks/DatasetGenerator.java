@@ -0,0 +1,276 @@
+package com.carterlumm.codevaultservice.benchmarks;
+
+import com.carterlumm.codevaultservice.service.SnippetBodyStore;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * DatasetGenerator
+ *
+ * Seeds a Postgres database with one benchmark user per dataset size, owning exactly that
+ * many snippets, so {@link SearchBenchmark} can show how search and listing scale from
+ * 10k to 1M rows. Users are named {@code bench-<size>@codevault.local}; several sizes
+ * coexist in one database and each is generated once and reused until its row count
+ * no longer matches.
+ *
+ * Content is deterministic per size: bodies are code-like lines over a fixed vocabulary
+ * picked with a skewed distribution, so some query terms match most snippets and others
+ * only a handful, and each snippet carries up to three of {@value #TAGS} tags.
+ *
+ * The schema must already exist (start the service, or {@link SearchBenchmark}, against the
+ * database once so Liquibase creates it). To pre-generate outside a benchmark run:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.carterlumm.codevaultservice.benchmarks.DatasetGenerator \
+ *     jdbc:postgresql://localhost:5432/codevault_bench codevault secret123 10000 100000 1000000
+ * </pre>
+ */
+public final class DatasetGenerator {
+
+    static final int TAGS = 200;
+    private static final int BATCH = 1_000;
+
+    private DatasetGenerator() {}
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 4) {
+            System.err.println("usage: DatasetGenerator <jdbc-url> <user> <password> <size>...");
+            System.exit(2);
+        }
+        for (int i = 3; i < args.length; i++) {
+            int size = Integer.parseInt(args[i]);
+            System.out.printf("%,d snippets owned by %s%n", size, ensure(args[0], args[1], args[2], size));
+        }
+    }
+
+    /**
+     * Returns the id of the benchmark user owning {@code size} snippets, generating the
+     * dataset first when it is missing or incomplete.
+     */
+    public static UUID ensure(String url, String user, String password, int size) throws SQLException {
+        var props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        // Lets the driver turn each batch into multi-row INSERTs
+        props.setProperty("reWriteBatchedInserts", "true");
+
+        try (Connection c = DriverManager.getConnection(url, props)) {
+            c.setAutoCommit(false);
+            String email = "bench-" + size + "@codevault.local";
+            UUID owner = findUser(c, email);
+            if (owner != null && countSnippets(c, owner) == size) return owner;
+
+            long start = System.nanoTime();
+            if (owner != null) {
+                // Snippets and their tag links go with the user
+                try (PreparedStatement ps = c.prepareStatement("DELETE FROM user_account WHERE id = ?")) {
+                    ps.setObject(1, owner);
+                    ps.executeUpdate();
+                }
+            }
+            owner = insertUser(c, email);
+            List<UUID> tagIds = ensureTags(c);
+            insertSnippets(c, owner, size, tagIds, new Content(new Random(size)));
+            c.commit();
+
+            try (Statement st = c.createStatement()) {
+                c.setAutoCommit(true);
+                st.execute("ANALYZE snippet");
+                st.execute("ANALYZE snippet_tag");
+            }
+            System.err.printf("Generated %,d snippets in %ds%n", size, (System.nanoTime() - start) / 1_000_000_000L);
+            return owner;
+        }
+    }
+
+    private static UUID findUser(Connection c, String email) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT id FROM user_account WHERE email = ?")) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getObject(1, UUID.class) : null;
+            }
+        }
+    }
+
+    private static long countSnippets(Connection c, UUID owner) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT count(*) FROM snippet WHERE user_id = ?")) {
+            ps.setObject(1, owner);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static UUID insertUser(Connection c, String email) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("""
+                INSERT INTO user_account (email, password_hash, display_name, server_url, created_at)
+                VALUES (?, 'benchmark-user-cannot-log-in', 'Benchmark', 'http://localhost:8080', now())
+                RETURNING id
+                """)) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getObject(1, UUID.class);
+            }
+        }
+    }
+
+    private static List<UUID> ensureTags(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO tag (name) VALUES (?) ON CONFLICT (name) DO NOTHING")) {
+            for (int i = 0; i < TAGS; i++) {
+                ps.setString(1, Content.tag(i));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        Map<String, UUID> byName = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement("SELECT id, name FROM tag WHERE name LIKE 'bench-%'");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) byName.put(rs.getString(2), rs.getObject(1, UUID.class));
+        }
+        List<UUID> ids = new ArrayList<>(TAGS);
+        for (int i = 0; i < TAGS; i++) ids.add(byName.get(Content.tag(i)));
+        return ids;
+    }
+
+    private static void insertSnippets(Connection c, UUID owner, int size, List<UUID> tagIds, Content content)
+            throws SQLException {
+        OffsetDateTime newest = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        try (PreparedStatement snippets = c.prepareStatement("""
+                INSERT INTO snippet (id, user_id, title, body, language, meta, favicon_url,
+                                     created_at, updated_at, body_length, body_hash)
+                VALUES (?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?, ?)
+                """);
+             PreparedStatement links = c.prepareStatement(
+                     "INSERT INTO snippet_tag (user_id, snippet_id, tag_id) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < size; i++) {
+                UUID id = content.uuid();
+                String body = content.body();
+                // Roughly two years of history, newest first
+                OffsetDateTime created = newest.minusSeconds((long) i * 63_072_000L / size);
+
+                snippets.setObject(1, id);
+                snippets.setObject(2, owner);
+                snippets.setString(3, content.title());
+                snippets.setString(4, body);
+                snippets.setString(5, content.language());
+                snippets.setString(6, "{\"source\":\"https://example.com/post/" + i + "\"}");
+                snippets.setString(7, "https://example.com/favicon.ico");
+                snippets.setObject(8, created);
+                snippets.setObject(9, created);
+                snippets.setInt(10, body.length());
+                snippets.setString(11, SnippetBodyStore.sha256(body.getBytes(StandardCharsets.UTF_8)));
+                snippets.addBatch();
+
+                for (int t : content.tagIndexes()) {
+                    links.setObject(1, owner);
+                    links.setObject(2, id);
+                    links.setObject(3, tagIds.get(t));
+                    links.addBatch();
+                }
+                if ((i + 1) % BATCH == 0 || i == size - 1) {
+                    snippets.executeBatch();
+                    links.executeBatch();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deterministic snippet content. Vocabulary words are drawn with a squared-uniform
+     * skew, so words early in {@link #WORDS} are common and later ones are rare.
+     */
+    static final class Content {
+
+        static final String[] LANGUAGES = {"java", "typescript", "python", "go", "sql", "bash", "rust", "kotlin"};
+
+        static final String[] WORDS = {
+                "user", "id", "list", "get", "value", "data", "item", "result", "name", "config",
+                "request", "response", "error", "map", "string", "count", "index", "query", "cache", "token",
+                "client", "server", "file", "path", "buffer", "stream", "event", "handler", "service", "key",
+                "session", "order", "payment", "account", "message", "queue", "thread", "lock", "batch", "page",
+                "cursor", "filter", "sort", "parse", "format", "encode", "decode", "hash", "retry", "timeout",
+                "schema", "column", "table", "row", "insert", "update", "delete", "select", "join", "commit",
+                "socket", "header", "cookie", "route", "render", "widget", "layout", "style", "theme", "color",
+                "matrix", "vector", "tensor", "kernel", "shader", "pixel", "frame", "texture", "mesh", "camera",
+                "invoice", "ledger", "tenant", "quota", "webhook", "cron", "lambda", "bucket", "shard", "replica",
+                "kafka", "redis", "postgres", "nginx", "docker", "kubernetes", "terraform", "ansible", "grpc", "graphql",
+                "debounce", "throttle", "memoize", "singleton", "visitor", "factory", "adapter", "decorator",
+                "mutex", "semaphore", "backoff", "checksum", "bitmap", "bloom", "trie", "heap", "dijkstra", "levenshtein"
+        };
+
+        private final Random random;
+
+        Content(Random random) {
+            this.random = random;
+        }
+
+        static String tag(int i) {
+            return "bench-" + WORDS[i % WORDS.length] + "-" + i / WORDS.length;
+        }
+
+        UUID uuid() {
+            return new UUID(random.nextLong(), random.nextLong());
+        }
+
+        String word() {
+            double u = random.nextDouble();
+            return WORDS[(int) (u * u * WORDS.length)];
+        }
+
+        String identifier() {
+            String second = word();
+            return word() + Character.toUpperCase(second.charAt(0)) + second.substring(1);
+        }
+
+        String title() {
+            int n = 3 + random.nextInt(4);
+            var sb = new StringBuilder();
+            String first = word();
+            sb.append(Character.toUpperCase(first.charAt(0))).append(first, 1, first.length());
+            for (int i = 1; i < n; i++) sb.append(' ').append(word());
+            return sb.toString();
+        }
+
+        /** 5 to 60 lines, about 40 characters each. */
+        String body() {
+            int lines = 5 + random.nextInt(56);
+            var sb = new StringBuilder(lines * 48);
+            for (int i = 0; i < lines; i++) {
+                switch (random.nextInt(4)) {
+                    case 0 -> sb.append("const ").append(identifier()).append(" = ").append(word())
+                            .append('.').append(identifier()).append("(").append(word()).append(");");
+                    case 1 -> sb.append("if (").append(word()).append(" == null) return ")
+                            .append(identifier()).append("();");
+                    case 2 -> sb.append("for (var ").append(word()).append(" : ").append(identifier())
+                            .append(") ").append(word()).append(".add(").append(word()).append(");");
+                    default -> sb.append("// ").append(word()).append(' ').append(word()).append(' ')
+                            .append(word()).append(' ').append(word());
+                }
+                sb.append('\n');
+            }
+            return sb.toString();
+        }
+
+        String language() {
+            return LANGUAGES[random.nextInt(LANGUAGES.length)];
+        }
+
+        /** Zero to three distinct tag indexes, skewed towards low indexes. */
+        int[] tagIndexes() {
+            return random.ints(random.nextInt(4), 0, TAGS)
+                    .map(t -> t * t / TAGS)
+                    .distinct()
+                    .toArray();
+        }
+
+        List<String> tags() {
+            return Arrays.stream(tagIndexes()).mapToObj(Content::tag).toList();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.carterlumm.codevaultservice.benchmarks;
+
+import com.carterlumm.codevaultservice.security.JwtAuthFilter;
+import com.carterlumm.codevaultservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.SecretKey;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of bearer-token authentication.
+ *
+ * <ul>
+ *   <li>{@code generateAccessToken}: signing a new access token, as login and refresh do</li>
+ *   <li>{@code validateCached} / {@code validateUncached}: {@link JwtService#validateAndGetClaims}
+ *       with and without the verified-token cache</li>
+ *   <li>{@code parsePerRequest}: the previous behaviour, building a parser and verifying
+ *       the HMAC + parsing the JSON for every request</li>
+ *   <li>{@code filterCachedToken}: the full {@link JwtAuthFilter} with the shared parser and
+ *       verified-token cache, re-sending one token as the extension does</li>
+ *   <li>{@code filterUncached}: the filter with the shared parser but caching disabled,
+ *       i.e. the cost of a token seen for the first time</li>
+ * </ul>
+ *
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar JwtAuthBenchmark -prof gc}
+ * to also see bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    static final String SECRET = "cm8zM3pOb1dUUDNWNjhNclloZzNrdVRGeXVOelhRdndFRDFxYTlNTHlsaDdqVHptOU96R2JHMXorU2dJSkk1dw==";
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private SecretKey key;
+    private JwtService jwt;
+    private JwtService uncachedJwt;
+    private JwtAuthFilter filter;
+    private JwtAuthFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        jwt = new JwtService(SECRET, 60, 10_000);
+        filter = new JwtAuthFilter(jwt, null, new SimpleMeterRegistry());
+        uncachedJwt = new JwtService(SECRET, 60, 0);
+        uncachedFilter = new JwtAuthFilter(uncachedJwt, null, new SimpleMeterRegistry());
+        token = jwt.generateAccessToken(USER_ID, "bench@example.com");
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwt.generateAccessToken(USER_ID, "bench@example.com");
+    }
+
+    @Benchmark
+    public Claims validateCached() {
+        return jwt.validateAndGetClaims(token);
+    }
+
+    @Benchmark
+    public Claims validateUncached() {
+        return uncachedJwt.validateAndGetClaims(token);
+    }
+
+    @Benchmark
+    public Claims parsePerRequest() {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Object filterCachedToken() throws Exception {
+        return runFilter(filter);
+    }
+
+    @Benchmark
+    public Object filterUncached() throws Exception {
+        return runFilter(uncachedFilter);
+    }
+
+    private Object runFilter(JwtAuthFilter f) throws Exception {
+        var req = new MockHttpServletRequest("GET", "/api/v1/snippets");
+        req.addHeader("Authorization", "Bearer " + token);
+        f.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
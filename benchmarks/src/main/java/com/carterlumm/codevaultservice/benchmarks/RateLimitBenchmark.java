@@ -0,0 +1,100 @@
+package com.carterlumm.codevaultservice.benchmarks;
+
+import com.carterlumm.codevaultservice.security.AuthenticatedUser;
+import com.carterlumm.codevaultservice.security.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link RateLimiter}, which sits in front of every API call.
+ *
+ * <ul>
+ *   <li>{@code allowed}: one user well under the limit, the common case</li>
+ *   <li>{@code throttled}: one user over the limit, i.e. the 429 path</li>
+ *   <li>{@code manyUsers}: callers spread over 50k users, so bucket lookups miss the CPU cache</li>
+ *   <li>{@code sharedBucket}: four threads charging the same bucket, contending on its CAS</li>
+ * </ul>
+ *
+ * The budget is well under a microsecond per call. Run with
+ * {@code java -jar benchmarks/target/benchmarks.jar RateLimitBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    static final int USERS = 50_000;
+
+    private RateLimiter unlimited;
+    private RateLimiter exhausted;
+    private UUID[] users;
+    private UUID sharedUser;
+
+    @Setup
+    public void setup() {
+        // read: one permit per nanosecond, so the bucket never runs dry
+        unlimited = new RateLimiter(new SimpleMeterRegistry(), true, 100_000,
+                "10/1m", 10, "10/1s", 20, "20/1s", 40, "1000000000/1s", 1_000_000);
+        exhausted = new RateLimiter(new SimpleMeterRegistry(), true, 100_000,
+                "10/1m", 10, "10/1s", 20, "20/1s", 40, "1/1h", 1);
+        users = new UUID[USERS];
+        for (int i = 0; i < USERS; i++) users[i] = UUID.randomUUID();
+        sharedUser = UUID.randomUUID();
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/snippets");
+        final UUID self = UUID.randomUUID();
+
+        @Setup
+        public void setup() {
+            request.setRemoteAddr("203.0.113.7");
+            authenticate(self);
+        }
+
+        @TearDown
+        public void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public long allowed(Caller c) {
+        return unlimited.acquire(c.request);
+    }
+
+    @Benchmark
+    public long throttled(Caller c) {
+        return exhausted.acquire(c.request);
+    }
+
+    @Benchmark
+    public long manyUsers(Caller c) {
+        authenticate(users[ThreadLocalRandom.current().nextInt(USERS)]);
+        return unlimited.acquire(c.request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long sharedBucket(Caller c) {
+        authenticate(sharedUser);
+        return unlimited.acquire(c.request);
+    }
+
+    private static void authenticate(UUID user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(user, "bench@example.com"), null, List.of()));
+    }
+}
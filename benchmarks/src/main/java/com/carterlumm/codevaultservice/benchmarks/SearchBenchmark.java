@@ -0,0 +1,119 @@
+package com.carterlumm.codevaultservice.benchmarks;
+
+import com.carterlumm.codevaultservice.CodeVaultApplication;
+import com.carterlumm.codevaultservice.dto.SnippetFilter;
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
+import com.carterlumm.codevaultservice.service.SnippetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end search and listing through {@link SnippetService} against a seeded Postgres,
+ * at each dataset size from {@link DatasetGenerator}, for both search engines.
+ *
+ * <ul>
+ *   <li>{@code search}: one page of 20 results, rotating through queries from very common
+ *       terms to rare ones, multi-term queries and a misspelled title</li>
+ *   <li>{@code listFirstPage}: the newest 20 snippets, what the vault opens with</li>
+ *   <li>{@code listDeepPage}: 20 snippets from the middle of the vault by keyset cursor,
+ *       which should cost the same as the first page</li>
+ * </ul>
+ *
+ * There is no embedded database: point {@code url}, {@code user} and {@code password} at a
+ * local Postgres 15 (e.g. {@code docker compose up db} and {@code createdb codevault_bench}).
+ * The first trial migrates the schema and generates any missing dataset, which takes a few
+ * minutes at 1M snippets. The memory engine loads the whole vault into its index on the
+ * first search; at 1M snippets that needs the larger heap the fork is given.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar SearchBenchmark -p snippets=100000 -p engine=postgres
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SearchBenchmark {
+
+    static final String[] QUERIES = {
+            "user", "cache token", "retry backoff", "levenshtein", "dijkstra heap",
+            "kubernetes replica", "payment webhook", "paymnet invoce", "select join commit", "bloom"
+    };
+
+    private static final SnippetFilter NO_FILTER = new SnippetFilter(List.of(), List.of(), Map.of());
+
+    @Param({"10000", "100000", "1000000"})
+    public int snippets;
+
+    @Param({"postgres", "memory"})
+    public String engine;
+
+    @Param("jdbc:postgresql://localhost:5432/codevault_bench")
+    public String url;
+
+    @Param("codevault")
+    public String user;
+
+    @Param("secret123")
+    public String password;
+
+    private ConfigurableApplicationContext context;
+    private SnippetService service;
+    private UUID owner;
+    private String middleCursor;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(CodeVaultApplication.class)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=" + user,
+                        "spring.datasource.password=" + password,
+                        "app.search.engine=" + engine,
+                        "server.port=0",
+                        "management.server.port=0",
+                        "logging.level.root=WARN")
+                .run();
+        service = context.getBean(SnippetService.class);
+        owner = DatasetGenerator.ensure(url, user, password, snippets);
+
+        // Walk to the middle once; the cursor stays valid for the whole trial
+        String after = null;
+        for (int seen = 0; seen < snippets / 2; seen += 100) {
+            after = service.findByUserId(owner, NO_FILTER, after, 100, "createdAt", "desc", true).nextCursor();
+        }
+        middleCursor = after;
+        // Loads the memory engine's shard so the first measured search does not pay for it
+        service.search(owner, QUERIES[0], null, 20, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SnippetRowPage search() {
+        String q = QUERIES[next++ % QUERIES.length];
+        return service.search(owner, q, null, 20, true);
+    }
+
+    @Benchmark
+    public SnippetRowPage listFirstPage() {
+        return service.findByUserId(owner, NO_FILTER, null, 20, "createdAt", "desc", true);
+    }
+
+    @Benchmark
+    public SnippetRowPage listDeepPage() {
+        return service.findByUserId(owner, NO_FILTER, middleCursor, 20, "createdAt", "desc", true);
+    }
+}
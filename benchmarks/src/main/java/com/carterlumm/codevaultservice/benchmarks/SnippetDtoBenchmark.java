@@ -0,0 +1,141 @@
+package com.carterlumm.codevaultservice.benchmarks;
+
+import com.carterlumm.codevaultservice.dto.CursorPage;
+import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.model.Tag;
+import com.carterlumm.codevaultservice.repository.SnippetQueryRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.carterlumm.codevaultservice.service.SnippetJsonWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.StreamUtils;
+
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one page of snippets into a response body.
+ *
+ * <ul>
+ *   <li>{@code fromEntity}: {@link SnippetDto#from(Snippet)} over a page of entities with tags</li>
+ *   <li>{@code fromRow}: {@link SnippetDto#from(SnippetRow, List)}, the projection path used by listings</li>
+ *   <li>{@code serializeCursorPage}: Jackson writing the {@link CursorPage} the API returns</li>
+ *   <li>{@code serializeSpringPage}: Jackson writing the same content as a Spring {@code Page},
+ *       for comparison with the offset-paginated responses it replaced</li>
+ *   <li>{@code responseViaDtos}: a whole list response the way it used to be produced, rows to
+ *       {@code SnippetDto}s to a Jackson-serialized {@link CursorPage}</li>
+ *   <li>{@code responseStreamed}: the same response as sent now, rows written straight to the
+ *       generator by {@link SnippetJsonWriter}</li>
+ * </ul>
+ *
+ * The two {@code response*} benchmarks write into a discarding stream, as into a servlet
+ * response, so with {@code -prof gc} their {@code gc.alloc.rate.norm} is bytes allocated per response.
+ * {@code summary} swaps full bodies for the short previews list responses carry.
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar SnippetDtoBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnippetDtoBenchmark {
+
+    static final int PAGE_SIZE = 50;
+    private static final String CURSOR = "MjAyNi0xMC0xOFQxMjowMDowMFo";
+
+    @Param({"false", "true"})
+    public boolean summary;
+
+    private ObjectMapper mapper;
+    private List<Snippet> entities;
+    private List<SnippetRow> rows;
+    private List<List<String>> rowTags;
+    private List<SnippetDto> dtos;
+    private SnippetJsonWriter snippetWriter;
+    private SnippetRowPage rowPage;
+    /** Stands in for the servlet response, which message converters never close. */
+    private final OutputStream response = StreamUtils.nonClosing(OutputStream.nullOutputStream());
+
+    @Setup
+    public void setup() {
+        // Same customizations Boot applies to the application's mapper
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        snippetWriter = new SnippetJsonWriter(mapper);
+        var data = new DatasetGenerator.Content(new Random(PAGE_SIZE));
+        entities = new ArrayList<>(PAGE_SIZE);
+        rows = new ArrayList<>(PAGE_SIZE);
+        rowTags = new ArrayList<>(PAGE_SIZE);
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            String body = data.body();
+            String shown = summary
+                    ? body.substring(0, Math.min(SnippetQueryRepository.SUMMARY_BODY_LENGTH, body.length()))
+                    : body;
+            List<String> tags = data.tags();
+            Map<String, Object> meta = Map.of("source", "https://example.com/post/" + i, "line", i);
+            Set<Tag> tagEntities = new HashSet<>();
+            tags.forEach(t -> tagEntities.add(Tag.builder().id(UUID.randomUUID()).name(t).build()));
+
+            entities.add(Snippet.builder()
+                    .id(UUID.randomUUID()).userId(UUID.randomUUID()).title(data.title()).body(shown)
+                    .bodyLength(body.length()).language(data.language()).meta(meta)
+                    .faviconUrl("https://example.com/favicon.ico").tags(tagEntities)
+                    .createdAt(now.minusMinutes(i)).updatedAt(now).version(0L).build());
+            rows.add(new SnippetRow(UUID.randomUUID(), data.title(), shown, "https://example.com/favicon.ico",
+                    data.language(), meta, now.minusMinutes(i), now, 0, body.length(), false));
+            rowTags.add(tags);
+        }
+        dtos = fromRow();
+        Map<UUID, List<String>> tagsById = new HashMap<>();
+        for (int i = 0; i < PAGE_SIZE; i++) tagsById.put(rows.get(i).id(), rowTags.get(i));
+        rowPage = new SnippetRowPage(rows, tagsById, CURSOR, false);
+    }
+
+    @Benchmark
+    public List<SnippetDto> fromEntity() {
+        List<SnippetDto> out = new ArrayList<>(entities.size());
+        for (Snippet s : entities) out.add(SnippetDto.from(s));
+        return out;
+    }
+
+    @Benchmark
+    public List<SnippetDto> fromRow() {
+        List<SnippetDto> out = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) out.add(SnippetDto.from(rows.get(i), rowTags.get(i)));
+        return out;
+    }
+
+    @Benchmark
+    public byte[] serializeCursorPage() throws Exception {
+        return mapper.writeValueAsBytes(new CursorPage<>(dtos, CURSOR, false));
+    }
+
+    @Benchmark
+    public byte[] serializeSpringPage() throws Exception {
+        return mapper.writeValueAsBytes(new PageImpl<>(dtos, PageRequest.of(0, PAGE_SIZE), 10_000));
+    }
+
+    @Benchmark
+    public void responseViaDtos() throws Exception {
+        mapper.writeValue(response, new CursorPage<>(fromRow(), CURSOR, false));
+    }
+
+    @Benchmark
+    public void responseStreamed() throws Exception {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(response)) {
+            snippetWriter.writePage(gen, rowPage);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.carterlumm.codevaultservice.benchmarks;
+
+import com.carterlumm.codevaultservice.model.Tag;
+import com.carterlumm.codevaultservice.repository.TagRepository;
+import com.carterlumm.codevaultservice.search.CodeTokenizer;
+import com.carterlumm.codevaultservice.service.TagRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the text handling done on every snippet write and search.
+ *
+ * <ul>
+ *   <li>{@code normalizeTags}: trimming and case-folding the tags of one request</li>
+ *   <li>{@code resolveTagsCached}: {@link TagRegistry#resolve} when every tag is already
+ *       cached, the steady state for a vault whose tags are known</li>
+ *   <li>{@code indexTerms}: {@link CodeTokenizer} splitting a 2KB body into index terms</li>
+ *   <li>{@code queryTerms} and {@code trigrams}: preparing one search query</li>
+ * </ul>
+ *
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar TagTokenizeBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagTokenizeBenchmark {
+
+    private List<String> requestTags;
+    private TagRegistry registry;
+    private String body;
+    private String query;
+
+    @Setup
+    public void setup() {
+        requestTags = List.of(" Java ", "spring-boot", "JAVA", "", "Concurrency", "jvm ");
+        registry = new TagRegistry(inMemoryTagRepository(), 10_000);
+        registry.resolve(requestTags);
+
+        var content = new DatasetGenerator.Content(new Random(42));
+        var sb = new StringBuilder();
+        while (sb.length() < 2048) sb.append(content.body());
+        body = sb.substring(0, 2048);
+        query = "parseHttpHeader retry_backoff";
+    }
+
+    @Benchmark
+    public Map<String, String> normalizeTags() {
+        return TagRegistry.normalize(requestTags);
+    }
+
+    @Benchmark
+    public Set<Tag> resolveTagsCached() {
+        return registry.resolve(requestTags);
+    }
+
+    @Benchmark
+    public List<String> indexTerms() {
+        return CodeTokenizer.indexTerms(body);
+    }
+
+    @Benchmark
+    public Set<String> queryTerms() {
+        return CodeTokenizer.queryTerms(query);
+    }
+
+    @Benchmark
+    public Set<String> trigrams() {
+        return CodeTokenizer.trigrams(query);
+    }
+
+    /** Answers the two queries {@link TagRegistry} makes on a cache miss; nothing else is used. */
+    private static TagRepository inMemoryTagRepository() {
+        return (TagRepository) Proxy.newProxyInstance(TagRepository.class.getClassLoader(),
+                new Class<?>[]{TagRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByLowerNameIn" -> List.of();
+                    case "insertMissing" -> Arrays.stream((String[]) args[0])
+                            .map(name -> Tag.builder().id(UUID.randomUUID()).name(name).build())
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,15 @@
+#!/bin/bash
+# Clones the primary into an empty data volume, then starts as a hot standby that follows it.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  mkdir -p "$PGDATA"
+  chown postgres "$PGDATA"
+  chmod 0700 "$PGDATA"
+  until gosu postgres pg_basebackup -h db -U replicator -D "$PGDATA" -R -X stream -c fast; do
+    echo "Waiting for the primary..."
+    sleep 2
+  done
+fi
+
+exec docker-entrypoint.sh postgres -c hot_standby=on "$@"
@@ -0,0 +1,44 @@
+#!/bin/sh
+# Time from JVM launch to the first answered HTTP request, best of STARTUP_RUNS starts.
+# Any status counts (the default probe gets 405); only a refused connection means "not up yet".
+#
+# usage: startup-time.sh <label> <java arguments...>
+#   e.g. startup-time.sh baseline -jar app.jar
+set -u
+
+label=$1
+shift
+url=${STARTUP_PROBE_URL:-http://localhost:8080/api/auth/login}
+runs=${STARTUP_RUNS:-3}
+log=/tmp/startup-$label.log
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+answers() { wget -S -O /dev/null "$url" 2>&1 | grep -q 'HTTP/'; }
+
+if answers; then
+    echo "$label: something is already answering on $url" >&2
+    exit 1
+fi
+
+best=
+i=0
+while [ "$i" -lt "$runs" ]; do
+    start=$(now_ms)
+    java "$@" > "$log" 2>&1 &
+    pid=$!
+    until answers; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$label: application exited before answering, see below" >&2
+            tail -n 40 "$log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ms=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+    echo "$label: run $((i + 1)) first request after ${ms} ms"
+    if [ -z "$best" ] || [ "$ms" -lt "$best" ]; then best=$ms; fi
+    i=$((i + 1))
+done
+echo "$label: time to first request ${best} ms (best of $runs)"
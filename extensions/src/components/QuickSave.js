@@ -3,6 +3,11 @@ import { useState, useEffect } from 'react';
 import { useAuth } from '@/context/AuthContext';
 import { useSettings } from '@/hooks/useSettings';
 import { ext, guessLangFromText } from "@/utils/ext";
+// Hex SHA-256 of the UTF-8 text, as the server stores it for each snippet body
+const sha256Hex = async (text) => {
+    const digest = await crypto.subtle.digest('SHA-256', new TextEncoder().encode(text));
+    return Array.from(new Uint8Array(digest), b => b.toString(16).padStart(2, '0')).join('');
+};
 export const QuickSave = ({ onSave }) => {
     const [title, setTitle] = useState('');
     const [language, setLanguage] = useState('');
@@ -36,6 +41,15 @@ export const QuickSave = ({ onSave }) => {
             const tabs = await ext.tabs.query({ active: true, currentWindow: true });
             const sourceUrl = tabs[0]?.url || '';
             const sourceTitle = tabs[0]?.title || '';
+            // Skip the upload when this exact body is already in the vault
+            const hash = await sha256Hex(content);
+            const check = await fetch(`${settings.apiBaseUrl}/api/v1/snippets/exists?hash=${hash}`, {
+                headers: { 'Authorization': `Bearer ${token}` },
+            });
+            if (check.ok && (await check.json()).exists) {
+                setStatus('Already saved');
+                return;
+            }
             const res = await fetch(`${settings.apiBaseUrl}/api/v1/snippets`, {
                 method: 'POST',
                 headers: {
@@ -9,7 +9,7 @@ export const SnippetsList = ({ onSelect }) => {
     const [snippets, setSnippets] = useState([]);
     const [loading, setLoading] = useState(false);
     const [error, setError] = useState(null);
-    const [page, setPage] = useState(0);
+    const [cursor, setCursor] = useState(null);
     const [hasMore, setHasMore] = useState(true);
     const { activeAccount } = useAuth();
     const { settings, ready } = useSettingsContext();
@@ -21,8 +21,9 @@ export const SnippetsList = ({ onSelect }) => {
         try {
             setLoading(true);
             setError(null);
-            const currentPage = reset ? 0 : page;
-            const data = await request(`/api/v1/snippets?page=${currentPage}&size=10`);
+            const after = reset ? null : cursor;
+            const query = after ? `&after=${encodeURIComponent(after)}` : "";
+            const data = await request(`/api/v1/snippets?limit=10${query}`);
             const newSnippets = data.content?.map((item) => ({
                 id: item.id,
                 title: item.title,
@@ -36,7 +37,7 @@ export const SnippetsList = ({ onSelect }) => {
             }));
             setSnippets((prev) => append && !reset ? [...prev, ...newSnippets] : newSnippets);
             setHasMore(!data.last);
-            setPage(currentPage + 1);
+            setCursor(data.nextCursor ?? null);
         }
         catch (err) {
             console.error("Error fetching snippets:", err);
@@ -49,7 +50,7 @@ export const SnippetsList = ({ onSelect }) => {
     // Reload snippets when account or settings change
     useEffect(() => {
         setSnippets([]);
-        setPage(0);
+        setCursor(null);
         setHasMore(true);
         if (ready && (activeAccount?.token || settings.apiBaseUrl)) {
             fetchSnippets(false, true);
@@ -14,7 +14,7 @@ export const SnippetsList: React.FC<SnippetsListProps> = ({ onSelect }) => {
   const [snippets, setSnippets] = useState<Snippet[]>([]);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
-  const [page, setPage] = useState(0);
+  const [cursor, setCursor] = useState<string | null>(null);
   const [hasMore, setHasMore] = useState(true);
 
   const { activeAccount } = useAuth();
@@ -29,8 +29,9 @@ export const SnippetsList: React.FC<SnippetsListProps> = ({ onSelect }) => {
       setLoading(true);
       setError(null);
 
-      const currentPage = reset ? 0 : page;
-      const data = await request(`/api/v1/snippets?page=${currentPage}&size=10`);
+      const after = reset ? null : cursor;
+      const query = after ? `&after=${encodeURIComponent(after)}` : "";
+      const data = await request(`/api/v1/snippets?limit=10${query}`);
 
       const newSnippets: Snippet[] = data.content?.map((item: any) => ({
         id: item.id,
@@ -49,7 +50,7 @@ export const SnippetsList: React.FC<SnippetsListProps> = ({ onSelect }) => {
       );
 
       setHasMore(!data.last);
-      setPage(currentPage + 1);
+      setCursor(data.nextCursor ?? null);
     } catch (err) {
       console.error("Error fetching snippets:", err);
       setError(err instanceof Error ? err.message : "Failed to load snippets");
@@ -61,7 +62,7 @@ export const SnippetsList: React.FC<SnippetsListProps> = ({ onSelect }) => {
   // Reload snippets when account or settings change
   useEffect(() => {
     setSnippets([]);
-    setPage(0);
+    setCursor(null);
     setHasMore(true);
 
     if (ready && (activeAccount?.token || settings.apiBaseUrl)) {
@@ -0,0 +1,337 @@
+package com.carterlumm.codevaultservice.loadtest;
+
+import com.carterlumm.codevaultservice.loadtest.Workload.Mix;
+import com.carterlumm.codevaultservice.loadtest.Workload.Op;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadTest
+ *
+ * Reproducible load generator for the REST API. Registers {@code users} accounts, seeds
+ * each empty vault with {@code snippets} synthetic snippets from {@link Workload} through the
+ * bulk import endpoint, then has {@code clients} concurrent clients, each on its own virtual
+ * thread and bound to one account, replay a weighted mix of list, search, create and update
+ * requests. Requests completed after the warm-up are reported per operation: throughput and
+ * HdrHistogram latency percentiles, plus the service's connection pool occupancy from its
+ * Prometheus endpoint ({@link PoolMonitor}).
+ *
+ * By default each client sends its next request as soon as the previous one completes
+ * (closed loop). With {@code -rate} clients follow a fixed schedule instead and latency is
+ * measured from when each request was due, so a server that stalls shows up in the
+ * percentiles rather than only as fewer requests.
+ *
+ * The per-user rate limiter would reject most of this traffic: unless it is what is being
+ * measured, start the service with {@code APP_RATE_LIMIT=false}. Rejections are counted as
+ * {@code HTTP 429} errors.
+ *
+ * Also used to compare the service's execution modes at high concurrency, e.g. run once
+ * against {@code APP_VIRTUAL_THREADS=false} and once against {@code APP_VIRTUAL_THREADS=true}
+ * with the same {@code DB_POOL_SIZE}.
+ *
+ * <pre>
+ * -url=http://localhost:8080      service base url
+ * -metrics=http://localhost:8081/actuator/prometheus
+ *                                 scraped for Hikari pool metrics; none to skip
+ * -users=20                       accounts loadtest-N@example.com, registered if missing
+ * -snippets=500                   snippets seeded into each empty vault
+ * -clients=200                    concurrent clients, spread evenly over the accounts
+ * -mix=list:50,search:30,create:10,update:10
+ * -rate=0                         requests/s across all clients; 0 for closed loop
+ * -duration=60                    measured seconds
+ * -warmup=10                      seconds discarded before measuring
+ * -seed=1                         fixes the seeded content and every client's requests
+ * -password=loadtest-password     password for all accounts
+ * -hgrm=DIR                       also write each operation's percentile distribution
+ *                                 to DIR/op.hgrm, for HdrHistogram's plotter
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /** Longest latency the histograms track, in microseconds. */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    /** Snippet ids fetched per vault as update targets. */
+    private static final int UPDATE_TARGETS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        URI base = URI.create(opts.getOrDefault("url", "http://localhost:8080"));
+        String metrics = opts.getOrDefault("metrics", "http://localhost:8081/actuator/prometheus");
+        int users = Integer.parseInt(opts.getOrDefault("users", "20"));
+        int snippets = Integer.parseInt(opts.getOrDefault("snippets", "500"));
+        int clients = Integer.parseInt(opts.getOrDefault("clients", "200"));
+        Mix mix = Mix.parse(opts.getOrDefault("mix", "list:50,search:30,create:10,update:10"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "0"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("warmup", "10")));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        String password = opts.getOrDefault("password", "loadtest-password");
+        String hgrm = opts.get("hgrm");
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        Random content = new Random(seed);
+        List<Vault> vaults = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            String token = authenticate(http, base, "loadtest-" + u + "@example.com", password);
+            vaults.add(seedIfEmpty(http, base, token, snippets, content));
+        }
+
+        System.out.printf("%d users, %d clients, %s, %s, %ds warm-up, %ds measured%n",
+                users, clients, mix, rate > 0 ? String.format("%.0f req/s", rate) : "closed loop",
+                warmup.toSeconds(), duration.toSeconds());
+        PoolMonitor pool = metrics.equals("none") ? null : new PoolMonitor(http, URI.create(metrics));
+        Result result = run(http, base, vaults, clients, mix, rate, seed, warmup, duration, pool);
+        result.print(System.out);
+        if (pool != null) pool.print(System.out);
+        if (hgrm != null) result.writeDistributions(Path.of(hgrm));
+    }
+
+    /** One seeded account: its token and a sample of its snippet ids to update. */
+    record Vault(String token, List<String> ids) {
+
+        String pickId(Random random) {
+            synchronized (ids) {
+                return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+            }
+        }
+
+        void addId(String id) {
+            if (!id.isEmpty()) ids.add(id);
+        }
+    }
+
+    static Result run(HttpClient http, URI base, List<Vault> vaults, int clients, Mix mix, double rate, long seed,
+                      Duration warmup, Duration duration, PoolMonitor pool) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        // Gap between one client's scheduled requests in open-loop mode
+        long interval = rate > 0 ? (long) (clients * 1e9 / rate) : 0;
+
+        Map<Op, Recorder> recorders = new EnumMap<>(Op.class);
+        for (Op op : Op.values()) recorders.put(op, new Recorder(MAX_LATENCY_MICROS, 3));
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        if (pool != null) pool.start(measureFrom);
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Vault vault = vaults.get(c % vaults.size());
+                Random random = new Random(seed * 31 + c);
+                long firstDue = start + (interval > 0 ? interval * c / clients : 0);
+                threads.submit(() -> {
+                    long due = firstDue;
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        if (interval > 0) {
+                            if (now < due) {
+                                Thread.sleep(Duration.ofNanos(due - now));
+                                continue;
+                            }
+                            now = due;
+                            due += interval;
+                        }
+                        Op op = mix.pick(random);
+                        String error = send(http, base, vault, op, random);
+                        long done = System.nanoTime();
+                        if (now < measureFrom) continue;
+                        if (error != null) {
+                            errors.computeIfAbsent(op.name().toLowerCase(Locale.ROOT) + " " + error,
+                                    k -> new LongAdder()).increment();
+                            continue;
+                        }
+                        long micros = Math.min(MAX_LATENCY_MICROS, (done - now) / 1_000);
+                        recorders.get(op).recordValue(micros);
+                    }
+                    return null;
+                });
+            }
+        } finally {
+            if (pool != null) pool.close();
+        }
+
+        Map<Op, Histogram> histograms = new EnumMap<>(Op.class);
+        recorders.forEach((op, r) -> {
+            Histogram h = r.getIntervalHistogram();
+            if (mix.weights().containsKey(op)) histograms.put(op, h);
+        });
+        return new Result(histograms, duration, errors);
+    }
+
+    /** Issues one request of type {@code op}; returns null on success or a short error description. */
+    private static String send(HttpClient http, URI base, Vault vault, Op op, Random random) {
+        try {
+            HttpRequest.Builder req = switch (op) {
+                case LIST -> HttpRequest.newBuilder(base.resolve("/api/v1/snippets?limit=20&summary=true")).GET();
+                case SEARCH -> HttpRequest.newBuilder(base.resolve("/api/v1/snippets/search?limit=20&summary=true&q="
+                        + URLEncoder.encode(Workload.query(random), StandardCharsets.UTF_8))).GET();
+                case CREATE -> json(base.resolve("/api/v1/snippets"), "POST", Workload.snippet(random));
+                case UPDATE -> {
+                    String id = vault.pickId(random);
+                    if (id == null) yield json(base.resolve("/api/v1/snippets"), "POST", Workload.snippet(random));
+                    yield json(base.resolve("/api/v1/snippets/" + id), "PUT", Workload.snippet(random));
+                }
+            };
+            HttpRequest request = req.header("Authorization", "Bearer " + vault.token())
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            if (op == Op.CREATE) {
+                HttpResponse<String> res = http.send(request, HttpResponse.BodyHandlers.ofString());
+                if (res.statusCode() >= 400) return "HTTP " + res.statusCode();
+                vault.addId(MAPPER.readTree(res.body()).path("id").asText());
+                return null;
+            }
+            HttpResponse<Void> res = http.send(request, HttpResponse.BodyHandlers.discarding());
+            return res.statusCode() >= 400 ? "HTTP " + res.statusCode() : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e.getClass().getSimpleName();
+        } catch (Exception e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    record Result(Map<Op, Histogram> histograms, Duration duration, Map<String, LongAdder> errors) {
+
+        void print(PrintStream out) {
+            Histogram all = new Histogram(MAX_LATENCY_MICROS, 3);
+            out.printf("%-8s %9s %9s %9s %9s %9s %9s %9s%n",
+                    "op", "ok", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            histograms.forEach((op, h) -> {
+                all.add(h);
+                printRow(out, op.name().toLowerCase(Locale.ROOT), h);
+            });
+            printRow(out, "all", all);
+            new TreeMap<>(errors).forEach((k, v) -> out.printf("errors    %s x %d%n", k, v.sum()));
+        }
+
+        private void printRow(PrintStream out, String name, Histogram h) {
+            out.printf("%-8s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, h.getTotalCount(), h.getTotalCount() / (double) duration.toSeconds(),
+                    millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1e3);
+        }
+
+        private static double millis(Histogram h, double percentile) {
+            return h.getValueAtPercentile(percentile) / 1e3;
+        }
+
+        void writeDistributions(Path dir) throws Exception {
+            Files.createDirectories(dir);
+            for (var e : histograms.entrySet()) {
+                var buf = new ByteArrayOutputStream();
+                // Recorded in microseconds; scale so the file reads in milliseconds
+                e.getValue().outputPercentileDistribution(new PrintStream(buf, true, StandardCharsets.UTF_8), 1e3);
+                Files.write(dir.resolve(e.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm"), buf.toByteArray());
+            }
+        }
+    }
+
+    private static String authenticate(HttpClient http, URI base, String email, String password) throws Exception {
+        HttpResponse<String> login = postJson(http, base.resolve("/api/auth/login"), null,
+                Map.of("email", email, "password", password));
+        if (login.statusCode() != 200) {
+            HttpResponse<String> register = postJson(http, base.resolve("/api/auth/register"), null,
+                    Map.of("email", email, "displayName", "Load Test", "password", password));
+            if (register.statusCode() != 200) {
+                throw new IllegalStateException("Could not log in or register " + email + ": HTTP " + register.statusCode());
+            }
+            login = register;
+        }
+        return MAPPER.readTree(login.body()).path("accessToken").asText();
+    }
+
+    /** Bulk-imports {@code count} snippets into the vault if it is empty, then samples ids to update. */
+    private static Vault seedIfEmpty(HttpClient http, URI base, String token, int count, Random random)
+            throws Exception {
+        JsonNode first = getJson(http, base.resolve("/api/v1/snippets?limit=1&summary=true"), token);
+        if (first.path("content").isEmpty() && count > 0) {
+            var ndjson = new ByteArrayOutputStream();
+            for (int i = 0; i < count; i++) {
+                MAPPER.writeValue(ndjson, Workload.snippet(random));
+                ndjson.write('\n');
+            }
+            HttpResponse<String> res = send(http, HttpRequest.newBuilder(base.resolve("/api/v1/snippets/bulk"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(ndjson.toByteArray()))
+                    .build());
+            System.out.printf("seeded %s%n", res.body());
+        }
+
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        do {
+            String page = "/api/v1/snippets?limit=100&summary=true"
+                    + (after != null ? "&after=" + URLEncoder.encode(after, StandardCharsets.UTF_8) : "");
+            JsonNode res = getJson(http, base.resolve(page), token);
+            res.path("content").forEach(s -> ids.add(s.path("id").asText()));
+            after = res.path("nextCursor").isTextual() ? res.path("nextCursor").asText() : null;
+        } while (after != null && ids.size() < UPDATE_TARGETS);
+        return new Vault(token, Collections.synchronizedList(ids));
+    }
+
+    private static JsonNode getJson(HttpClient http, URI uri, String token) throws Exception {
+        HttpResponse<String> res = send(http, HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token).GET().build());
+        if (res.statusCode() != 200) throw new IllegalStateException("GET " + uri + ": HTTP " + res.statusCode());
+        return MAPPER.readTree(res.body());
+    }
+
+    private static HttpResponse<String> postJson(HttpClient http, URI uri, String token, Object body) throws Exception {
+        HttpRequest.Builder req = json(uri, "POST", body);
+        if (token != null) req.header("Authorization", "Bearer " + token);
+        return send(http, req.build());
+    }
+
+    private static HttpRequest.Builder json(URI uri, String method, Object body) throws Exception {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+    }
+
+    /** Sends a setup request, waiting out 429s so seeding works against a rate-limited service. */
+    private static HttpResponse<String> send(HttpClient http, HttpRequest req) throws Exception {
+        for (;;) {
+            HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+            if (res.statusCode() != 429) return res;
+            long wait = res.headers().firstValueAsLong("Retry-After").orElse(1);
+            System.out.printf("rate limited on %s, retrying in %ds%n", req.uri().getPath(), wait);
+            Thread.sleep(Duration.ofSeconds(wait));
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("-") || eq < 0) throw new IllegalArgumentException("Expected -name=value, got " + arg);
+            opts.put(arg.substring(1, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
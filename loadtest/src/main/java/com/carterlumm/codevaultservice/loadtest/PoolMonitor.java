@@ -0,0 +1,129 @@
+package com.carterlumm.codevaultservice.loadtest;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PoolMonitor
+ *
+ * Samples the service's Hikari pool once a second from its Prometheus endpoint while a run
+ * is measured, to tell whether latency came from waiting for a connection. Reports mean and
+ * peak active and pending connections, how often every connection was in use, pool timeouts,
+ * and the mean time to acquire a connection.
+ *
+ * Values are summed over pools, so a service with several data sources reports their total.
+ */
+final class PoolMonitor implements AutoCloseable {
+
+    private static final Duration INTERVAL = Duration.ofSeconds(1);
+
+    private final HttpClient http;
+    private final URI endpoint;
+    private final Thread sampler;
+    private volatile long startAt;
+
+    private volatile String failure;
+    private int samples;
+    private int saturated;
+    private double max;
+    private double activeSum;
+    private double activePeak;
+    private double pendingSum;
+    private double pendingPeak;
+    private Map<String, Double> first;
+    private Map<String, Double> last;
+
+    PoolMonitor(HttpClient http, URI endpoint) {
+        this.http = http;
+        this.endpoint = endpoint;
+        this.sampler = Thread.ofVirtual().name("pool-monitor").unstarted(this::sampleUntilInterrupted);
+    }
+
+    /** Starts sampling at {@code startAt}, a {@link System#nanoTime()} instant such as the end of the warm-up. */
+    void start(long startAt) {
+        this.startAt = startAt;
+        sampler.start();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        sampler.interrupt();
+        sampler.join();
+    }
+
+    private void sampleUntilInterrupted() {
+        try {
+            Thread.sleep(Duration.ofNanos(Math.max(0, startAt - System.nanoTime())));
+        } catch (InterruptedException e) {
+            return;
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                record(scrape());
+                Thread.sleep(INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+                return;
+            }
+        }
+    }
+
+    private Map<String, Double> scrape() throws Exception {
+        HttpResponse<String> res = http.send(HttpRequest.newBuilder(endpoint).timeout(Duration.ofSeconds(5)).GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() != 200) throw new IllegalStateException("HTTP " + res.statusCode() + " from " + endpoint);
+
+        Map<String, Double> values = new HashMap<>();
+        for (String line : res.body().split("\n")) {
+            if (!line.startsWith("hikaricp_connections")) continue;
+            int nameEnd = line.indexOf('{');
+            if (nameEnd < 0) nameEnd = line.indexOf(' ');
+            double value = Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+            values.merge(line.substring(0, nameEnd), value, Double::sum);
+        }
+        if (!values.containsKey("hikaricp_connections_active"))
+            throw new IllegalStateException("no hikaricp_connections metrics at " + endpoint);
+        return values;
+    }
+
+    private synchronized void record(Map<String, Double> v) {
+        if (first == null) first = v;
+        last = v;
+        double active = v.getOrDefault("hikaricp_connections_active", 0.0);
+        double pending = v.getOrDefault("hikaricp_connections_pending", 0.0);
+        max = v.getOrDefault("hikaricp_connections_max", 0.0);
+        samples++;
+        activeSum += active;
+        activePeak = Math.max(activePeak, active);
+        pendingSum += pending;
+        pendingPeak = Math.max(pendingPeak, pending);
+        if (max > 0 && active >= max) saturated++;
+    }
+
+    synchronized void print(PrintStream out) {
+        if (samples < 2) {
+            out.printf("pool      unavailable%s%n", failure != null ? " (" + failure + ")" : "");
+            return;
+        }
+        double timeouts = delta("hikaricp_connections_timeout_total");
+        double acquires = delta("hikaricp_connections_acquire_seconds_count");
+        double acquireMillis = acquires > 0 ? delta("hikaricp_connections_acquire_seconds_sum") / acquires * 1e3 : 0;
+        out.printf("pool      max %.0f  active mean %.1f peak %.0f  pending mean %.1f peak %.0f%n",
+                max, activeSum / samples, activePeak, pendingSum / samples, pendingPeak);
+        out.printf("          saturated %.0f%% of %d samples  timeouts %.0f  acquire mean %.2fms%n",
+                100.0 * saturated / samples, samples, timeouts, acquireMillis);
+        if (failure != null) out.printf("          sampling stopped early: %s%n", failure);
+    }
+
+    private double delta(String name) {
+        return last.getOrDefault(name, 0.0) - first.getOrDefault(name, 0.0);
+    }
+}
@@ -0,0 +1,175 @@
+package com.carterlumm.codevaultservice.loadtest;
+
+import java.util.*;
+
+/**
+ * Workload
+ *
+ * Synthetic vault content and the request mix replayed against it. The distributions are
+ * rough fits to what the extension saves rather than measurements:
+ * <ul>
+ *   <li>body length is log-normal around {@value #MEDIAN_BODY_CHARS} characters, so most
+ *       snippets are a few lines and under 1 in 100 exceeds the 16 KB inline limit and is stored
+ *       out of line</li>
+ *   <li>languages are weighted towards web stacks, with some snippets untagged by language</li>
+ *   <li>0 to 4 tags per snippet, Zipf-distributed over {@value #TAG_POOL} names, so a few
+ *       tags are on most snippets and most tags are rare</li>
+ *   <li>words are drawn from a fixed vocabulary with the same skew, so search queries range
+ *       from terms matching much of a vault to terms matching a handful of snippets</li>
+ * </ul>
+ * Everything is drawn from the caller's {@link Random}, so a fixed {@code -seed} reproduces
+ * the same vaults and the same request sequence per client.
+ */
+final class Workload {
+
+    static final int MEDIAN_BODY_CHARS = 600;
+    static final int TAG_POOL = 300;
+    private static final double BODY_SIGMA = 1.3;
+    private static final int MAX_BODY_CHARS = 200_000;
+
+    private static final String[] LANGUAGES =
+            {"javascript", "typescript", "python", "java", "bash", "sql", "go", "rust", "css", null};
+    private static final int[] LANGUAGE_WEIGHTS = {25, 20, 18, 12, 8, 7, 4, 3, 2, 1};
+
+    private static final String[] WORDS = {
+            "user", "id", "list", "value", "data", "item", "result", "name", "config", "request",
+            "response", "error", "map", "count", "index", "query", "cache", "token", "client", "server",
+            "file", "path", "buffer", "stream", "event", "handler", "service", "session", "order", "payment",
+            "account", "message", "queue", "thread", "lock", "batch", "page", "cursor", "filter", "parse",
+            "format", "encode", "decode", "hash", "retry", "timeout", "schema", "column", "table", "insert",
+            "update", "delete", "select", "join", "commit", "socket", "header", "cookie", "route", "render",
+            "widget", "layout", "theme", "matrix", "vector", "kernel", "shader", "pixel", "frame", "texture",
+            "invoice", "ledger", "tenant", "quota", "webhook", "cron", "lambda", "bucket", "shard", "replica",
+            "kafka", "redis", "postgres", "nginx", "docker", "kubernetes", "terraform", "grpc", "graphql",
+            "debounce", "throttle", "memoize", "singleton", "visitor", "adapter", "mutex", "semaphore",
+            "backoff", "checksum", "bitmap", "bloom", "trie", "dijkstra", "levenshtein"
+    };
+
+    private Workload() {}
+
+    /** One request type in the mix. */
+    enum Op { LIST, SEARCH, CREATE, UPDATE }
+
+    /**
+     * Relative weights per {@link Op}, parsed from {@code list:50,search:30,create:10,update:10}.
+     * Ops left out are never issued.
+     */
+    record Mix(EnumMap<Op, Integer> weights, int total) {
+
+        static Mix parse(String spec) {
+            var weights = new EnumMap<Op, Integer>(Op.class);
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split(":");
+                if (kv.length != 2) throw new IllegalArgumentException("Expected op:weight, got " + part);
+                int w = Integer.parseInt(kv[1].trim());
+                if (w < 0) throw new IllegalArgumentException("Negative weight for " + kv[0]);
+                if (w > 0) weights.put(Op.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), w);
+            }
+            int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+            if (total == 0) throw new IllegalArgumentException("Mix has no operations: " + spec);
+            return new Mix(weights, total);
+        }
+
+        Op pick(Random random) {
+            int r = random.nextInt(total);
+            for (var e : weights.entrySet()) {
+                r -= e.getValue();
+                if (r < 0) return e.getKey();
+            }
+            throw new AssertionError();
+        }
+
+        @Override
+        public String toString() {
+            var sb = new StringJoiner(" ");
+            weights.forEach((op, w) -> sb.add(op.name().toLowerCase(Locale.ROOT) + ":" + w));
+            return sb.toString();
+        }
+    }
+
+    /** A new snippet as the create and bulk endpoints accept it. */
+    static Map<String, Object> snippet(Random random) {
+        var s = new LinkedHashMap<String, Object>();
+        s.put("title", title(random));
+        s.put("body", body(random));
+        String language = pickWeighted(random, LANGUAGES, LANGUAGE_WEIGHTS);
+        if (language != null) s.put("language", language);
+        s.put("tags", tags(random));
+        s.put("meta", Map.of("source", "https://example.com/" + word(random) + "/" + random.nextInt(100_000)));
+        return s;
+    }
+
+    /** A search query: usually one or two vocabulary words, sometimes a misspelled one. */
+    static String query(Random random) {
+        int kind = random.nextInt(10);
+        if (kind < 5) return word(random);
+        if (kind < 9) return word(random) + " " + word(random);
+        String w = word(random);
+        // Drop one letter, as a typo the fuzzy title match should still catch
+        int at = random.nextInt(w.length());
+        return w.length() > 3 ? w.substring(0, at) + w.substring(at + 1) : w;
+    }
+
+    static String title(Random random) {
+        int n = 2 + random.nextInt(6);
+        var sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            String w = word(random);
+            if (i == 0) sb.append(Character.toUpperCase(w.charAt(0))).append(w, 1, w.length());
+            else sb.append(' ').append(w);
+        }
+        return sb.toString();
+    }
+
+    static String body(Random random) {
+        long target = Math.round(Math.exp(Math.log(MEDIAN_BODY_CHARS) + BODY_SIGMA * random.nextGaussian()));
+        int length = (int) Math.max(20, Math.min(MAX_BODY_CHARS, target));
+        var sb = new StringBuilder(length + 64);
+        while (sb.length() < length) {
+            switch (random.nextInt(4)) {
+                case 0 -> sb.append("const ").append(identifier(random)).append(" = ").append(word(random))
+                        .append('.').append(identifier(random)).append('(').append(word(random)).append(");");
+                case 1 -> sb.append("if (").append(word(random)).append(" == null) return ")
+                        .append(identifier(random)).append("();");
+                case 2 -> sb.append("for (const ").append(word(random)).append(" of ").append(identifier(random))
+                        .append(") ").append(word(random)).append(".push(").append(word(random)).append(");");
+                default -> sb.append("// ").append(word(random)).append(' ').append(word(random)).append(' ')
+                        .append(word(random));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    static List<String> tags(Random random) {
+        int n = random.nextInt(5);
+        var tags = new LinkedHashSet<String>();
+        for (int i = 0; i < n; i++) tags.add("tag-" + zipf(random, TAG_POOL));
+        return List.copyOf(tags);
+    }
+
+    private static String word(Random random) {
+        return WORDS[zipf(random, WORDS.length)];
+    }
+
+    private static String identifier(Random random) {
+        String second = word(random);
+        return word(random) + Character.toUpperCase(second.charAt(0)) + second.substring(1);
+    }
+
+    /** Rank in {@code [0, n)} with probability roughly proportional to {@code 1 / (rank + 1)}. */
+    private static int zipf(Random random, int n) {
+        // Inverse CDF of the continuous 1/x density over [1, n + 1)
+        return Math.min(n - 1, (int) Math.pow(n + 1, random.nextDouble()) - 1);
+    }
+
+    private static <T> T pickWeighted(Random random, T[] values, int[] weights) {
+        int total = Arrays.stream(weights).sum();
+        int r = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            r -= weights[i];
+            if (r < 0) return values[i];
+        }
+        throw new AssertionError();
+    }
+}
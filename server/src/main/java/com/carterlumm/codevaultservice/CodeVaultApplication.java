@@ -2,11 +2,19 @@ package com.carterlumm.codevaultservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Arrays;
 
 @SpringBootApplication
+@EnableScheduling
 public class CodeVaultApplication {
 
     public static void main(String[] args) {
+        if (args.length > 0 && DatabaseMigrator.MODE.equals(args[0])) {
+            DatabaseMigrator.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SpringApplication.run(CodeVaultApplication.class, args);
     }
 
@@ -0,0 +1,40 @@
+package com.carterlumm.codevaultservice;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.Arrays;
+
+/**
+ * DatabaseMigrator
+ *
+ * The {@code migrate} run mode ({@code java -jar app.jar migrate}): applies the Liquibase
+ * changelog with the usual {@code spring.datasource.*} and {@code spring.liquibase.*} settings,
+ * then exits without building the rest of the application. Run it once per deploy, before the
+ * new version starts, so app replicas can boot with {@code DB_MIGRATE_ON_STARTUP=false}.
+ *
+ * A failed migration fails the process, so the deploy stops before any replica starts.
+ */
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, LiquibaseAutoConfiguration.class})
+final class DatabaseMigrator {
+
+    static final String MODE = "migrate";
+
+    private DatabaseMigrator() {
+    }
+
+    static void run(String[] args) {
+        // AOT-generated initializers exist only for the full application context
+        System.setProperty("spring.aot.enabled", "false");
+        String[] withLiquibase = Arrays.copyOf(args, args.length + 1);
+        withLiquibase[args.length] = "--spring.liquibase.enabled=true";
+        new SpringApplicationBuilder(DatabaseMigrator.class)
+                .main(DatabaseMigrator.class)
+                .web(WebApplicationType.NONE)
+                .run(withLiquibase)
+                .close();
+    }
+}
@@ -0,0 +1,4 @@
+package com.carterlumm.codevaultservice.cache;
+
+/** A snippet's serialized {@code SnippetDto} JSON together with the row version it was read at. */
+public record CachedSnippet(long version, byte[] json) {}
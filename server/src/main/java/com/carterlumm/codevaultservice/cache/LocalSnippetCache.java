@@ -0,0 +1,58 @@
+package com.carterlumm.codevaultservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * LocalSnippetCache
+ *
+ * Caffeine-backed {@link SnippetCache}. Bounded by total serialized size rather than entry
+ * count, so a few very large snippets cannot crowd the heap, and expired after a TTL as a
+ * backstop for changes made outside this instance. Concurrent misses for the same id share
+ * one load.
+ *
+ * Hit, miss, eviction and size metrics are published as {@code cache.*} with
+ * {@code cache=snippets}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.snippet-cache.type", havingValue = "local", matchIfMissing = true)
+public class LocalSnippetCache implements SnippetCache {
+
+    /** Rough per-entry cost of the key, node, record and array header on top of the JSON bytes. */
+    private static final int ENTRY_OVERHEAD = 112;
+
+    private final Cache<UUID, CachedSnippet> cache;
+
+    public LocalSnippetCache(MeterRegistry registry,
+                             @Value("${app.snippet-cache.max-size:64MB}") DataSize maxSize,
+                             @Value("${app.snippet-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((UUID id, CachedSnippet s) -> s.json().length + ENTRY_OVERHEAD)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "snippets");
+    }
+
+    @Override
+    public Optional<CachedSnippet> get(UUID id, Function<UUID, CachedSnippet> loader) {
+        return Optional.ofNullable(cache.get(id, loader));
+    }
+
+    @Override
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+}
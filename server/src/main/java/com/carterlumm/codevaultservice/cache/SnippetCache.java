@@ -0,0 +1,27 @@
+package com.carterlumm.codevaultservice.cache;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * SnippetCache
+ *
+ * Read-through cache of single snippets, keyed by id and holding the already-serialized
+ * {@code SnippetDto} JSON and its version so a hit, or a conditional GET answered with
+ * 304, is served without touching JPA or Jackson.
+ * Entries are invalidated once a change to the snippet has committed.
+ *
+ * Selected with {@code app.snippet-cache.type}: {@code local} (default, in-process).
+ * A shared implementation (e.g. Redis) only needs to honour the same two operations.
+ */
+public interface SnippetCache {
+
+    /**
+     * Returns the cached JSON for {@code id}, calling {@code loader} on a miss.
+     * A loader returning {@code null} (snippet not found) is not cached.
+     */
+    Optional<CachedSnippet> get(UUID id, Function<UUID, CachedSnippet> loader);
+
+    void invalidate(UUID id);
+}
@@ -0,0 +1,14 @@
+package com.carterlumm.codevaultservice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    /** Records {@code @Timed} beans, tagged with class, method and the exception thrown (or {@code none}). */
+    @Bean public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
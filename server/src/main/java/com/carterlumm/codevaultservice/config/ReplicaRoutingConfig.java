@@ -0,0 +1,94 @@
+package com.carterlumm.codevaultservice.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-replica routing, on when {@code app.datasource.replica.urls} ({@code DB_REPLICA_URLS})
+ * lists at least one streaming replica of {@code spring.datasource.url}.
+ *
+ * The application's {@code dataSource} becomes a {@link LazyConnectionDataSourceProxy}: a
+ * transaction only takes a physical connection once it knows whether it is read-only, so
+ * {@code @Transactional(readOnly = true)} work (and Spring Data's read methods) goes to
+ * {@link ReplicaRoutingDataSource} and everything else, Liquibase included, to the primary.
+ *
+ * Every pool is its own Hikari pool: the primary keeps {@code spring.datasource.hikari.*}
+ * and each replica copies those settings under the pool name {@code <pool-name>-replica-<n>}.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(
+            @Qualifier("primaryDataSource") DataSource primary, MeterRegistry registry,
+            @Value("${app.datasource.replica.urls}") List<String> urls,
+            @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size:0}") int poolSize,
+            @Value("${app.datasource.replica.max-lag:10s}") Duration maxLag,
+            @Value("${app.datasource.replica.read-your-writes:2s}") Duration readYourWrites,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${app.jdbc.admission-timeout:5s}") Duration admissionTimeout) throws SQLException {
+        if (urls.isEmpty()) {
+            // Only reachable from a fast-startup (AOT) build, which fixed this configuration at build time
+            throw new IllegalStateException("Image was built with replica routing but DB_REPLICA_URLS is empty");
+        }
+        HikariDataSource primaryPool = primary.unwrap(HikariDataSource.class);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryPool.copyStateTo(config);
+            config.setPoolName(primaryPool.getPoolName() + "-replica-" + (i + 1));
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);   // a replica that is down must not stop startup
+            if (poolSize > 0) config.setMaximumPoolSize(poolSize);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            DataSource pool = new HikariDataSource(config);
+            // VirtualThreadConfig only sees bean pools, so replicas get their admission control here
+            if (virtualThreads) {
+                pool = new AdmissionControlledDataSource(pool, config.getMaximumPoolSize(), admissionTimeout);
+            }
+            replicas.put(config.getPoolName(), pool);
+        }
+        return new ReplicaRoutingDataSource(primaryPool.getPoolName(), primary, replicas, maxLag, readYourWrites, registry);
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                    ReplicaRoutingDataSource replicas) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(replicas);
+        return proxy;
+    }
+}
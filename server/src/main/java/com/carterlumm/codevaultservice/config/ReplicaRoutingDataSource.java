@@ -0,0 +1,217 @@
+package com.carterlumm.codevaultservice.config;
+
+import com.carterlumm.codevaultservice.event.SnippetChangedEvent;
+import com.carterlumm.codevaultservice.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReplicaRoutingDataSource
+ *
+ * Target for read-only transactions when {@code app.datasource.replica.urls} is set (see
+ * {@link ReplicaRoutingConfig}). Each connection goes to the next replica in round-robin
+ * order, except:
+ * <ul>
+ *   <li>a replica whose last measured lag exceeds {@code max-lag}, or that could not be
+ *       probed, is skipped until it catches up; with none left, reads use the primary</li>
+ *   <li>a user who just changed a snippet reads from the primary for {@code read-your-writes}
+ *       plus the worst lag currently measured, so their own save is never missing from
+ *       the next page they load</li>
+ * </ul>
+ * Snippets are only ever read by their owner, so pinning the writer covers every reader
+ * of the changed rows, including their other devices.
+ *
+ * Lag is probed every {@code lag-check-interval} from the replica's own WAL positions: zero
+ * while it has replayed everything it received, otherwise the age of the last replayed commit.
+ * Positions alone cannot tell a caught-up standby from one that stopped receiving, so a
+ * standby whose WAL receiver is not {@code streaming} is skipped like an unreachable one.
+ * The receiver's status is only visible to roles with {@code pg_read_all_stats} (for example
+ * {@code pg_monitor}); without it every replica reads as stalled and reads use the primary.
+ *
+ * Metrics: {@code datasource.routing} (by pool and reason) and
+ * {@code datasource.replica.lag} (seconds, by pool). Each pool also reports the usual
+ * {@code hikaricp.connections.*} meters under its own pool name.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    /**
+     * Seconds a standby is behind; zero once it has replayed all the WAL it has received, and
+     * NULL when it is not streaming from the primary, since then it cannot know how far behind it is.
+     */
+    private static final String LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0
+                        WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END""";
+
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final long PINNED_USERS = 100_000;
+
+    private final List<Replica> replicas;
+    private final long maxLagNanos;
+    private final long readYourWritesNanos;
+    private final Cache<UUID, Long> pinnedUntil;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter pinnedReads;
+    private final Counter fallbackReads;
+
+    /**
+     * @param primaryName pool name of {@code primary}, for the routing meters
+     * @param replicas replica pools by pool name, in round-robin order
+     */
+    public ReplicaRoutingDataSource(String primaryName, DataSource primary, Map<String, DataSource> replicas,
+                                    Duration maxLag, Duration readYourWrites, MeterRegistry registry) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.readYourWritesNanos = readYourWrites.toNanos();
+        this.pinnedUntil = Caffeine.newBuilder()
+                .maximumSize(PINNED_USERS)
+                .expireAfterWrite(maxLag.plus(readYourWrites))
+                .build();
+        this.replicas = replicas.entrySet().stream()
+                .map(e -> new Replica(e.getKey(), e.getValue(), registry))
+                .toList();
+        this.pinnedReads = routed(registry, primaryName, "read-your-writes");
+        this.fallbackReads = routed(registry, primaryName, "replica-lag");
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID user = currentUser();
+        if (user != null && isPinned(user)) {
+            pinnedReads.increment();
+            return PRIMARY;
+        }
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.lagNanos <= maxLagNanos) {
+                r.reads.increment();
+                return r.name;
+            }
+        }
+        fallbackReads.increment();
+        return PRIMARY;
+    }
+
+    /** Keeps the owner's reads on the primary until the replicas have caught up with this change. */
+    @TransactionalEventListener
+    public void onSnippetChanged(SnippetChangedEvent event) {
+        pinnedUntil.put(event.userId(), System.nanoTime() + readYourWritesNanos + worstLagNanos());
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:1s}")
+    public void probeLag() {
+        for (Replica r : replicas) {
+            long lag;
+            try (Connection c = r.pool.getConnection(); Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double seconds = rs.getDouble(1);
+                if (rs.wasNull()) throw new IllegalStateException("WAL receiver is not streaming");
+                lag = (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+            } catch (Exception e) {
+                if (r.lagNanos != UNREACHABLE) log.warn("Replica {} unusable, reading from the others: {}", r.name, e.toString());
+                lag = UNREACHABLE;
+            }
+            recordLag(r.name, lag);
+        }
+    }
+
+    void recordLag(String pool, long lagNanos) {
+        for (Replica r : replicas) {
+            if (!r.name.equals(pool)) continue;
+            if (r.lagNanos <= maxLagNanos && lagNanos > maxLagNanos && lagNanos != UNREACHABLE)
+                log.warn("Replica {} is {}ms behind, reading from the others", pool,
+                        TimeUnit.NANOSECONDS.toMillis(lagNanos));
+            r.lagNanos = lagNanos;
+        }
+    }
+
+    boolean isPinned(UUID user) {
+        Long until = pinnedUntil.getIfPresent(user);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    /** Closes the replica pools; the primary is a bean of its own. */
+    @Override
+    public void close() throws Exception {
+        for (Replica r : replicas) {
+            if (r.pool.isWrapperFor(AutoCloseable.class)) r.pool.unwrap(AutoCloseable.class).close();
+        }
+    }
+
+    /** Worst lag among the replicas still taking reads. */
+    private long worstLagNanos() {
+        long worst = 0;
+        for (Replica r : replicas) {
+            if (r.lagNanos <= maxLagNanos) worst = Math.max(worst, r.lagNanos);
+        }
+        return worst;
+    }
+
+    private static UUID currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AuthenticatedUser u ? u.id() : null;
+    }
+
+    private static Counter routed(MeterRegistry registry, String pool, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Read-only connections handed out, by target pool and why it was chosen")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource pool;
+        final Counter reads;
+        volatile long lagNanos;
+
+        Replica(String name, DataSource pool, MeterRegistry registry) {
+            this.name = name;
+            this.pool = pool;
+            this.reads = routed(registry, name, "read");
+            Gauge.builder("datasource.replica.lag", this,
+                            r -> r.lagNanos == UNREACHABLE ? Double.NaN : r.lagNanos / 1e9)
+                    .description("Replay lag behind the primary; NaN while the replica is unreachable")
+                    .baseUnit("seconds")
+                    .tag("pool", name)
+                    .register(registry);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.carterlumm.codevaultservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,5 +8,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class SecurityBeans {
-    @Bean public PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
-}
\ No newline at end of file
+    /** Raising {@code app.auth.bcrypt-strength} upgrades existing hashes as users log in. */
+    @Bean public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
@@ -2,14 +2,20 @@
 package com.carterlumm.codevaultservice.config;
 
 import com.carterlumm.codevaultservice.security.JwtAuthFilter;
+import com.carterlumm.codevaultservice.security.RateLimitFilter;
+import com.carterlumm.codevaultservice.security.RateLimiter;
+import com.carterlumm.codevaultservice.security.UserIdResolver;
 import com.carterlumm.codevaultservice.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 
@@ -19,7 +25,8 @@ import java.util.List;
 public class SpringSecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtService jwt) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtService jwt, UserIdResolver userIdResolver,
+                                           RateLimiter rateLimiter, MeterRegistry registry) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(req -> {
@@ -38,14 +45,23 @@ public class SpringSecurityConfig {
                 }))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/error").permitAll()
+                        // Only reachable on the management port (management.server.port)
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                         .requestMatchers("/api/auth/login").permitAll()
                         .requestMatchers("/api/auth/register").permitAll()
                         .requestMatchers("/api/auth/refresh").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // Everything that reads the caller's own vault; only single snippets are public
+                        .requestMatchers(HttpMethod.GET, "/api/v1/snippets", "/api/v1/snippets/search",
+                                "/api/v1/snippets/exists", "/api/v1/snippets/facets", "/api/v1/snippets/export",
+                                "/api/v1/snippets/changes", "/api/v1/snippets/stream").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/v1/snippets/**").permitAll()
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(new JwtAuthFilter(jwt), UsernamePasswordAuthenticationFilter.class)
+                // Missing or invalid token: 401, which clients answer by refreshing it
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new JwtAuthFilter(jwt, userIdResolver, registry), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthFilter.class)
                 .httpBasic(basic -> basic.disable())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS));
@@ -0,0 +1,41 @@
+package com.carterlumm.codevaultservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Extra wiring for the opt-in virtual-thread execution mode
+ * ({@code spring.threads.virtual.enabled=true}, or {@code APP_VIRTUAL_THREADS=true}).
+ *
+ * Spring Boot itself moves Tomcat request handling and {@code @Async}/scheduling onto
+ * virtual threads; this adds JDBC admission control so an unbounded number of request
+ * threads cannot stampede the fixed-size Hikari pool.
+ * With read replicas configured each replica pool is guarded the same way
+ * (see {@link ReplicaRoutingConfig}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcAdmissionControl(
+            @Value("${app.jdbc.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${app.jdbc.admission-timeout:5s}") Duration timeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Pools only: wrapping a routing or proxy data source as well would charge callers twice
+                if (bean instanceof HikariDataSource ds) {
+                    return new AdmissionControlledDataSource(ds, maxConcurrent, timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.carterlumm.codevaultservice.controller;
+
+import com.carterlumm.codevaultservice.repository.VaultStamp;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+
+/**
+ * Entity tags for snippet resources.
+ *
+ * A single snippet's tag is its row version, so {@code If-Match} on a write maps straight
+ * onto the optimistic-lock check. Writes answer with the strong tag; {@code GET} sends it
+ * weak, since Tomcat will not gzip a response carrying a strong validator and every
+ * encoding of one version is the same snippet. List tags are weak too, built from
+ * the owner's {@link VaultStamp}, with {@code updated_at} at the microsecond precision
+ * Postgres stores.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** The tag for a {@code GET} of the snippet, which may go out compressed. */
+    static String weak(long version) {
+        return "W/" + of(version);
+    }
+
+    static String of(VaultStamp stamp) {
+        long modified = 0;
+        if (stamp.lastModified() != null) {
+            Instant at = stamp.lastModified().toInstant();
+            modified = at.getEpochSecond() * 1_000_000 + at.getNano() / 1_000;
+        }
+        return "W/\"" + stamp.count() + "-" + Long.toString(stamp.versions(), 36)
+                + "-" + Long.toString(modified, 36) + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} header requires, or {@code null} when the header is
+     * absent or {@code *}. The weak tag from {@link #weak} names the same version, so it is
+     * accepted and compared exactly; anything unparseable gets 412.
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"") && tag.indexOf(',') < 0) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to 412
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match the current version");
+    }
+}
@@ -1,77 +1,236 @@
 package com.carterlumm.codevaultservice.controller;
 
+import com.carterlumm.codevaultservice.cache.CachedSnippet;
+import com.carterlumm.codevaultservice.dto.BulkImportResult;
 import com.carterlumm.codevaultservice.dto.CreateSnippetRequest;
+import com.carterlumm.codevaultservice.dto.SnippetChanges;
 import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.dto.SnippetExists;
+import com.carterlumm.codevaultservice.dto.SnippetFacets;
+import com.carterlumm.codevaultservice.dto.SnippetFilter;
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
 import com.carterlumm.codevaultservice.dto.UpdateSnippetRequest;
+import com.carterlumm.codevaultservice.event.SnippetEventBroadcaster;
 import com.carterlumm.codevaultservice.exception.ResourceNotFoundException;
 import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.security.AuthenticatedUser;
+import com.carterlumm.codevaultservice.service.SnippetBulkService;
 import com.carterlumm.codevaultservice.service.SnippetService;
+import com.carterlumm.codevaultservice.service.SnippetSyncService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.security.Principal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/v1/snippets")
 @RequiredArgsConstructor
 public class SnippetController {
 
+    private static final Pattern BODY_HASH = Pattern.compile("[0-9a-fA-F]{64}");
+    private static final Pattern META_KEY = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String META_PREFIX = "meta.";
+    /** Most values accepted per filter parameter, and most meta keys per request. */
+    private static final int MAX_FILTER_VALUES = 10;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
     private SnippetService service;
 
+    @Autowired
+    private SnippetBulkService bulkService;
+
+    @Autowired
+    private SnippetSyncService syncService;
+
+    @Autowired
+    private SnippetEventBroadcaster broadcaster;
+
     @PostMapping
     public SnippetDto create(@RequestBody CreateSnippetRequest req,
-                             Principal principal) {
-        var email = principal.getName();
-        Snippet saved = service.create(req, email);
+                             @AuthenticationPrincipal AuthenticatedUser user) {
+        Snippet saved = service.create(req, user.id());
         return SnippetDto.from(saved);
     }
 
 
+    /**
+     * Whether the caller already saved a body with this SHA-256 (hex of its UTF-8 bytes),
+     * so the extension can skip uploading it again.
+     */
+    @GetMapping("/exists")
+    public SnippetExists exists(@RequestParam String hash, @AuthenticationPrincipal AuthenticatedUser user) {
+        if (!BODY_HASH.matcher(hash).matches())
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "hash must be 64 hex characters");
+        UUID id = service.findByBodyHash(user.id(), hash.toLowerCase(Locale.ROOT)).orElse(null);
+        return new SnippetExists(id != null, id);
+    }
+
+    /** Bulk import: one CreateSnippetRequest JSON object per line, parsed as it streams in */
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public BulkImportResult bulkImport(InputStream body, @AuthenticationPrincipal AuthenticatedUser user)
+            throws IOException {
+        return bulkService.importNdjson(user.id(), body);
+    }
+
+    /** Streams the caller's whole vault as NDJSON, one SnippetDto per line */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@AuthenticationPrincipal AuthenticatedUser user) {
+        UUID userId = user.id();
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"snippets.ndjson\"")
+                .body(out -> bulkService.exportNdjson(userId, out));
+    }
+
+    /**
+     * Delta sync: snippets changed and deleted since the {@code since} token from the previous
+     * call (omit it for the first sync). Call again immediately while {@code hasMore} is true.
+     */
+    @GetMapping("/changes")
+    public SnippetChanges changes(@RequestParam(required = false) String since,
+                                  @RequestParam(defaultValue = "200") int limit,
+                                  @AuthenticationPrincipal AuthenticatedUser user) {
+        return syncService.changes(user.id(), since, limit);
+    }
+
+    /**
+     * Server-Sent Events: a {@code snippet} event ({@code {"type","id"}}) for every committed
+     * change to the caller's snippets, or {@code resync} if the client fell too far behind.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal AuthenticatedUser user) {
+        return broadcaster.subscribe(user.id());
+    }
+
+    /** Publicly readable; answered from the snippet cache as pre-serialized JSON, or 304 when unchanged */
     @GetMapping("/{id}")
-    public SnippetDto get(@PathVariable UUID id) {
-        Snippet s = service.get(id).orElseThrow(() -> new ResourceNotFoundException("Snippet not found"));
-        return SnippetDto.from(s);
+    public ResponseEntity<byte[]> get(@PathVariable UUID id, WebRequest request) {
+        CachedSnippet s = service.getCached(id).orElseThrow(() -> new ResourceNotFoundException("Snippet not found"));
+        if (request.checkNotModified(ETags.weak(s.version()))) return null;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(s.json());
     }
 
+    /** Honours If-Match: a stale version gets 412 instead of overwriting a newer edit */
     @PutMapping("/{id}")
-    public SnippetDto update(@PathVariable UUID id, @Valid @RequestBody UpdateSnippetRequest req) {
-        Snippet s = service.update(id, req).orElseThrow(() -> new ResourceNotFoundException("Snippet not found"));
-        return SnippetDto.from(s);
+    public ResponseEntity<SnippetDto> update(@PathVariable UUID id, @Valid @RequestBody UpdateSnippetRequest req,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @AuthenticationPrincipal AuthenticatedUser user) {
+        Long expected = ETags.requiredVersion(ifMatch);
+        Snippet s;
+        try {
+            s = service.update(id, user.id(), req, expected).orElseThrow(() -> new ResourceNotFoundException("Snippet not found"));
+        } catch (OptimisticLockingFailureException e) {
+            throw concurrentWrite(expected);
+        }
+        return ResponseEntity.ok().eTag(ETags.of(s.getVersion())).body(SnippetDto.from(s));
     }
 
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable UUID id) {
-        service.delete(id);
+    public void delete(@PathVariable UUID id,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                       @AuthenticationPrincipal AuthenticatedUser user) {
+        Long expected = ETags.requiredVersion(ifMatch);
+        try {
+            service.delete(id, user.id(), expected);
+        } catch (OptimisticLockingFailureException e) {
+            throw concurrentWrite(expected);
+        }
     }
 
+    /** Another writer committed between our read and our versioned write. */
+    private static ResponseStatusException concurrentWrite(Long expected) {
+        return expected != null
+                ? new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Snippet has been modified")
+                : new ResponseStatusException(HttpStatus.CONFLICT, "Snippet was modified concurrently, retry");
+    }
+
+    /** Ranked matches; same response shape as the listing */
     @GetMapping("/search")
-    public Page<SnippetDto> search(@RequestParam String q,
-                                   @RequestParam(defaultValue = "0") int page,
-                                   @RequestParam(defaultValue = "10") int size) {
-        return service.search(q, page, size).map(SnippetDto::from);
+    public SnippetRowPage search(@RequestParam String q,
+                                 @RequestParam(required = false) String after,
+                                 @RequestParam(defaultValue = "10") int limit,
+                                 @RequestParam(defaultValue = "false") boolean summary,
+                                 @AuthenticationPrincipal AuthenticatedUser user) {
+        return service.search(user.id(), q, after, limit, summary);
     }
 
+    /**
+     * Lists the caller's snippets, optionally narrowed by {@code tag} (repeat to require
+     * several), {@code language} (repeat to allow several) and {@code meta.<key>=value}.
+     * Weak ETag over the whole vault: 304 costs one aggregate query and no page hydration.
+     * The page is a {@code CursorPage<SnippetDto>} in JSON, streamed by {@link SnippetRowPageConverter}.
+     */
     @GetMapping
-    public Page<SnippetDto> getSnippets(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size,
+    public SnippetRowPage getSnippets(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int limit,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String direction,
-            Principal principal) {
+            @RequestParam(defaultValue = "false") boolean summary,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> language,
+            @RequestParam MultiValueMap<String, String> params,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            WebRequest request) {
 
-        String email = principal.getName();
-        return service.findByUserEmail(
-                email,
-                page,
-                size,
+        SnippetFilter filter = filter(tag, language, params);
+        if (request.checkNotModified(ETags.of(service.stamp(user.id())))) return null;
+        return service.findByUserId(
+                user.id(),
+                filter,
+                after,
+                limit,
                 sortBy,
-                direction
-        ).map(SnippetDto::from);
+                direction,
+                summary
+        );
+    }
+
+    /** Tag and language counts over the caller's vault, under the same weak ETag as the listing */
+    @GetMapping("/facets")
+    public SnippetFacets facets(@AuthenticationPrincipal AuthenticatedUser user, WebRequest request) {
+        if (request.checkNotModified(ETags.of(service.stamp(user.id())))) return null;
+        return service.facets(user.id());
+    }
+
+    private static SnippetFilter filter(List<String> tags, List<String> languages,
+                                        MultiValueMap<String, String> params) {
+        Map<String, String> meta = new LinkedHashMap<>();
+        params.forEach((name, values) -> {
+            if (!name.startsWith(META_PREFIX)) return;
+            String key = name.substring(META_PREFIX.length());
+            if (!META_KEY.matcher(key).matches())
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid meta filter key: " + key);
+            if (values.size() != 1)
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "One value per meta filter: " + name);
+            meta.put(key, values.get(0));
+        });
+        tags = tags != null ? tags : List.of();
+        languages = languages != null ? languages : List.of();
+        if (tags.size() > MAX_FILTER_VALUES || languages.size() > MAX_FILTER_VALUES || meta.size() > MAX_FILTER_VALUES)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_FILTER_VALUES + " values per filter");
+        return new SnippetFilter(tags, languages, meta);
     }
 }
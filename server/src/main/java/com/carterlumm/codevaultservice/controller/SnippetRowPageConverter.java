@@ -0,0 +1,57 @@
+package com.carterlumm.codevaultservice.controller;
+
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
+import com.carterlumm.codevaultservice.service.SnippetJsonWriter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Sends list and search pages ({@link SnippetRowPage}) as JSON, streamed to the response
+ * through {@link SnippetJsonWriter} rather than via a {@code CursorPage<SnippetDto>}.
+ * Boot registers it ahead of the Jackson converter, which handles everything else.
+ */
+@Component
+class SnippetRowPageConverter extends AbstractHttpMessageConverter<SnippetRowPage> {
+
+    private final JsonFactory factory;
+    private final SnippetJsonWriter writer;
+
+    SnippetRowPageConverter(ObjectMapper mapper, SnippetJsonWriter writer) {
+        super(MediaType.APPLICATION_JSON);
+        this.factory = mapper.getFactory();
+        this.writer = writer;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SnippetRowPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SnippetRowPage readInternal(Class<? extends SnippetRowPage> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("SnippetRowPage is response-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(SnippetRowPage page, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator gen = factory.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            writer.writePage(gen, page);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.carterlumm.codevaultservice.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an NDJSON bulk import.
+ *
+ * @param imported number of snippets saved
+ * @param rejected number of lines skipped because they failed validation
+ * @param errors   first few rejection reasons, prefixed with their 1-based line number
+ */
+public record BulkImportResult(
+        int imported,
+        int rejected,
+        List<String> errors
+) {}
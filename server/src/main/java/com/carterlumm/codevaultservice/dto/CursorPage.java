@@ -0,0 +1,16 @@
+package com.carterlumm.codevaultservice.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing.
+ *
+ * @param content    items in this slice
+ * @param nextCursor opaque cursor to pass as {@code after} for the next slice, or null when {@code last}
+ * @param last       true when there is nothing after this slice
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean last
+) {}
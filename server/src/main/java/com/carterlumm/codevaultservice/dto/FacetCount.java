@@ -0,0 +1,6 @@
+package com.carterlumm.codevaultservice.dto;
+
+/**
+ * One facet value and how many of the caller's snippets have it.
+ */
+public record FacetCount(String value, long count) {}
@@ -0,0 +1,19 @@
+package com.carterlumm.codevaultservice.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One batch of a delta sync.
+ *
+ * @param updated snippets created or modified since the token, oldest change first
+ * @param deleted ids of snippets deleted since the token
+ * @param since   token to send next time; covers everything in this batch
+ * @param hasMore true when more changes are waiting and the client should call again at once
+ */
+public record SnippetChanges(
+        List<SnippetDto> updated,
+        List<UUID> deleted,
+        String since,
+        boolean hasMore
+) {}
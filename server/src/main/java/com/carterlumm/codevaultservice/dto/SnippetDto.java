@@ -1,16 +1,22 @@
 package com.carterlumm.codevaultservice.dto;
 
 import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
 
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 import com.carterlumm.codevaultservice.model.Tag;
 
+/**
+ * Snippet as returned by the API. In list and search results {@code body} may be a
+ * prefix of the full text; compare its length with {@code bodyLength}.
+ */
 public record SnippetDto(
         UUID id,
         String title,
         String body,
+        int bodyLength,
         String faviconUrl,
         String language,
         Map<String, Object> meta,
@@ -22,7 +28,8 @@ public record SnippetDto(
         return new SnippetDto(
                 snippet.getId(),
                 snippet.getTitle(),
-                snippet.getBody(),
+                snippet.getFullBody() != null ? snippet.getFullBody() : snippet.getBody(),
+                snippet.getBodyLength(),
                 snippet.getFaviconUrl(),
                 snippet.getLanguage(),
                 snippet.getMeta(),
@@ -33,4 +40,24 @@ public record SnippetDto(
                 snippet.getUpdatedAt()
         );
     }
+
+    public static SnippetDto from(SnippetRow row, List<String> tags) {
+        return new SnippetDto(
+                row.id(),
+                row.title(),
+                row.body(),
+                row.bodyLength(),
+                row.faviconUrl(),
+                row.language(),
+                row.meta(),
+                tags,
+                row.createdAt(),
+                row.updatedAt()
+        );
+    }
+
+    /** Same snippet with the full body, for rows whose inline body is only a preview. */
+    public SnippetDto withBody(String fullBody) {
+        return new SnippetDto(id, title, fullBody, bodyLength, faviconUrl, language, meta, tags, createdAt, updatedAt);
+    }
 }
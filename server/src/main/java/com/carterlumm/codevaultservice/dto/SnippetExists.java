@@ -0,0 +1,11 @@
+package com.carterlumm.codevaultservice.dto;
+
+import java.util.UUID;
+
+/**
+ * Answer to the "already saved" check.
+ *
+ * @param exists whether the caller already has a snippet with this body
+ * @param id     that snippet, or null
+ */
+public record SnippetExists(boolean exists, UUID id) {}
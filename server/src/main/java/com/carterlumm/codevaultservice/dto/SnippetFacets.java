@@ -0,0 +1,15 @@
+package com.carterlumm.codevaultservice.dto;
+
+import java.util.List;
+
+/**
+ * Per-facet snippet counts over the caller's whole vault, most common first, for building
+ * filter controls. Snippets without tags or without a language are not counted under any value.
+ *
+ * @param tags      tag name counts, limited to the 200 most common
+ * @param languages language counts
+ */
+public record SnippetFacets(
+        List<FacetCount> tags,
+        List<FacetCount> languages
+) {}
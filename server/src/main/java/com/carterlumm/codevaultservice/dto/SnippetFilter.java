@@ -0,0 +1,24 @@
+package com.carterlumm.codevaultservice.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Narrows a vault listing. A snippet matches when it carries every one of {@code tags},
+ * its language is one of {@code languages}, and each {@code meta} key holds the given value.
+ * Empty criteria match everything.
+ *
+ * @param tags      tag names, matched case-insensitively
+ * @param languages languages, matched exactly
+ * @param meta      top-level meta key → value; matches a JSON string equal to the value, or
+ *                  the number or boolean it spells
+ */
+public record SnippetFilter(
+        List<String> tags,
+        List<String> languages,
+        Map<String, String> meta
+) {
+    public boolean isEmpty() {
+        return tags.isEmpty() && languages.isEmpty() && meta.isEmpty();
+    }
+}
@@ -0,0 +1,28 @@
+package com.carterlumm.codevaultservice.dto;
+
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One slice of a snippet listing or search, as loaded: projected rows plus their tags from
+ * one batched query. Sent as the same JSON as {@code CursorPage<SnippetDto>}, written
+ * row by row without building a {@link SnippetDto} for each.
+ *
+ * @param rows       snippets in this slice, in response order
+ * @param tags       tag names by snippet id; snippets without tags may be absent
+ * @param nextCursor opaque cursor to pass as {@code after} for the next slice, or null when {@code last}
+ * @param last       true when there is nothing after this slice
+ */
+public record SnippetRowPage(
+        List<SnippetRow> rows,
+        Map<UUID, List<String>> tags,
+        String nextCursor,
+        boolean last
+) {
+    public static SnippetRowPage empty() {
+        return new SnippetRowPage(List.of(), Map.of(), null, true);
+    }
+}
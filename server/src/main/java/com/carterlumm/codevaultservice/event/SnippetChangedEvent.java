@@ -0,0 +1,47 @@
+package com.carterlumm.codevaultservice.event;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.model.Tag;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * SnippetChangedEvent
+ *
+ * Published by the snippet service whenever a snippet is created, updated or deleted.
+ * Carries a detached snapshot of the indexed fields so listeners never touch lazy
+ * associations after the originating transaction has completed. {@code body} is the full
+ * text as written, not the inline preview kept for large bodies, and {@code version} is the
+ * row version the change was made against.
+ */
+public record SnippetChangedEvent(
+        Type type,
+        UUID snippetId,
+        UUID userId,
+        String title,
+        String body,
+        List<String> tags,
+        long version
+) {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static SnippetChangedEvent created(Snippet s, String body) { return snapshot(Type.CREATED, s, body); }
+
+    public static SnippetChangedEvent updated(Snippet s, String body) { return snapshot(Type.UPDATED, s, body); }
+
+    public static SnippetChangedEvent deleted(Snippet s) {
+        return new SnippetChangedEvent(Type.DELETED, s.getId(), s.getUserId(), null, null, List.of(), version(s));
+    }
+
+    private static SnippetChangedEvent snapshot(Type type, Snippet s, String body) {
+        List<String> tags = s.getTags() != null
+                ? s.getTags().stream().map(Tag::getName).toList()
+                : List.of();
+        return new SnippetChangedEvent(type, s.getId(), s.getUserId(), s.getTitle(), body, tags, version(s));
+    }
+
+    private static long version(Snippet s) {
+        return s.getVersion() != null ? s.getVersion() : 0;
+    }
+}
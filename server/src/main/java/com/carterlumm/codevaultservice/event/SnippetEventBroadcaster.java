@@ -0,0 +1,172 @@
+package com.carterlumm.codevaultservice.event;
+
+import com.carterlumm.codevaultservice.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SnippetEventBroadcaster
+ *
+ * Fans committed {@link SnippetChangedEvent}s out to the owner's open Server-Sent Events
+ * streams. An idle stream is only an async servlet request plus a small queue, so no
+ * thread is parked per connection; writes happen on short-lived virtual threads, one
+ * drain at a time per connection, never on the committing request thread.
+ *
+ * Each connection buffers at most {@code app.stream.buffer} events. A client that falls
+ * further behind (or a bulk import that outruns it) is sent a single {@code resync} event
+ * and disconnected; it should catch up through {@code /changes} and reconnect. A comment
+ * line every {@code app.stream.heartbeat} keeps proxies from closing idle streams and
+ * surfaces dead connections.
+ */
+@Component
+public class SnippetEventBroadcaster {
+
+    private final ConcurrentMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "sse-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Duration timeout;
+    private final int bufferSize;
+    private final int maxPerUser;
+
+    public SnippetEventBroadcaster(@Value("${app.stream.heartbeat:25s}") Duration heartbeat,
+                                   @Value("${app.stream.timeout:30m}") Duration timeout,
+                                   @Value("${app.stream.buffer:64}") int bufferSize,
+                                   @Value("${app.stream.max-per-user:8}") int maxPerUser) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        this.maxPerUser = maxPerUser;
+        long period = heartbeat.toMillis();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** Opens a stream of the user's snippet changes. */
+    public SseEmitter subscribe(UUID userId) {
+        return register(userId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter register(UUID userId, SseEmitter emitter) {
+        Subscriber sub = new Subscriber(userId, emitter);
+        // Check and add under the bin lock unsubscribe also takes, so the set can neither be
+        // dropped in between nor grow past the limit
+        subscribers.compute(userId, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            if (set.size() >= maxPerUser) {
+                throw new TooManyRequestsException("Too many open change streams", Duration.ofSeconds(30));
+            }
+            set.add(sub);
+            return set;
+        });
+        emitter.onCompletion(() -> unsubscribe(sub));
+        emitter.onTimeout(() -> unsubscribe(sub));
+        emitter.onError(e -> unsubscribe(sub));
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onSnippetChanged(SnippetChangedEvent event) {
+        Set<Subscriber> set = subscribers.get(event.userId());
+        if (set == null) return;
+        Push push = new Push("snippet", new Change(event.type().name(), event.snippetId()));
+        for (Subscriber sub : set) sub.offer(push);
+    }
+
+    int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void heartbeat() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber sub : set) {
+                if (sub.queue.isEmpty()) sub.offer(Push.HEARTBEAT);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber sub) {
+        subscribers.computeIfPresent(sub.userId, (k, set) -> {
+            set.remove(sub);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+        senders.shutdown();
+    }
+
+    /** Payload of a {@code snippet} event; clients fetch the snippet itself if they need it. */
+    public record Change(String type, UUID id) {}
+
+    private record Push(String name, Object data) {
+        static final Push HEARTBEAT = new Push(null, null);
+        static final Push RESYNC = new Push("resync", "");
+    }
+
+    private final class Subscriber {
+        final UUID userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Push> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean overflowed;
+
+        Subscriber(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Push push) {
+            if (!queue.offer(push)) overflowed = true;
+            if (draining.compareAndSet(false, true)) senders.execute(this::drain);
+        }
+
+        /** Single writer per connection; re-checks the queue after releasing the flag so no push is stranded. */
+        private void drain() {
+            try {
+                while (true) {
+                    if (overflowed) {
+                        unsubscribe(this);
+                        send(Push.RESYNC);
+                        emitter.complete();
+                        return;
+                    }
+                    Push next = queue.poll();
+                    if (next == null) {
+                        draining.set(false);
+                        if ((queue.isEmpty() && !overflowed) || !draining.compareAndSet(false, true)) return;
+                        continue;
+                    }
+                    send(next);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container reports completion, this just stops early
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void send(Push push) throws IOException {
+            if (push == Push.HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } else {
+                emitter.send(SseEmitter.event().name(push.name()).data(push.data(), MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+}
@@ -4,8 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import java.time.OffsetDateTime;
@@ -14,6 +14,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+/**
+ * {@code snippet} is hash-partitioned on {@code user_id}, and so is its {@code snippet_tag}
+ * join table. {@link PartitionKey} makes Hibernate add {@code user_id} to every UPDATE and
+ * DELETE so those touch a single partition; queries should filter on the owner for the same reason.
+ */
 @Entity
 @Table(name = "snippet")
 @Getter
@@ -22,20 +27,38 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 public class Snippet {
+    /** Assigned in {@link #assignId()}, not by a generator; see the note on {@link #tags}. */
     @Id
-    @GeneratedValue
-    @UuidGenerator
     private UUID id;
 
-    @Column(name = "user_id", nullable = false)
+    @PartitionKey
+    @Column(name = "user_id", nullable = false, updatable = false)
     private UUID userId;
 
     @Column(nullable = false)
     private String title;
 
+    /** Full body, or only a preview of it when {@link #bodyExternal} (see {@code SnippetBodyStore}). */
     @Column(nullable = false, columnDefinition = "text")
     private String body;
 
+    /** Length of the full body in characters. */
+    @Column(name = "body_length", nullable = false)
+    private int bodyLength;
+
+    /** Hex SHA-256 of the full body's UTF-8 bytes. */
+    @Column(name = "body_hash", length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String bodyHash;
+
+    /** True when the full body lives compressed in {@code snippet_blob}, keyed by {@link #bodyHash}. */
+    @Column(name = "body_external", nullable = false)
+    private boolean bodyExternal;
+
+    /** Full body as written in this session; not persisted, only {@link #body} is. */
+    @Transient
+    private String fullBody;
+
     @Column(name = "favicon_url")
     private String faviconUrl;
 
@@ -53,15 +76,31 @@ public class Snippet {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt = OffsetDateTime.now();
 
+    /** Optimistic-lock version; bumped on every update, including tag changes. Exposed as the ETag. */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Joined on {@code (snippet_id, user_id)} so link rows land in the owner's partition.
+     * Hibernate copies the referenced columns into a synthetic key, which would re-run an
+     * id generator, hence the id is assigned up front.
+     */
     @ManyToMany
     @JoinTable(
             name = "snippet_tag",
-            joinColumns = @JoinColumn(name = "snippet_id"),
+            joinColumns = {
+                    @JoinColumn(name = "snippet_id", referencedColumnName = "id"),
+                    @JoinColumn(name = "user_id", referencedColumnName = "user_id")
+            },
             inverseJoinColumns = @JoinColumn(name = "tag_id")
     )
     @Builder.Default
     private Set<Tag> tags = new HashSet<>();
 
+    @PrePersist
+    void assignId() { if (id == null) id = UUID.randomUUID(); }
+
     @PreUpdate
     public void touch() { this.updatedAt = OffsetDateTime.now(); }
 }
@@ -0,0 +1,40 @@
+package com.carterlumm.codevaultservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Compressed full text of a large snippet body, stored once per distinct content.
+ * Snippets point at it through {@code snippet.body_hash}; {@link #refCount} is how many
+ * do, and the blob is deleted when it reaches zero.
+ */
+@Entity
+@Table(name = "snippet_blob")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SnippetBlob {
+    /** Hex SHA-256 of the uncompressed UTF-8 body. */
+    @Id
+    @Column(length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String hash;
+
+    /** Compression format of {@link #data}, e.g. {@code zstd}. */
+    @Column(nullable = false, length = 16)
+    private String codec;
+
+    /** Size of the uncompressed UTF-8 body in bytes. */
+    @Column(name = "raw_size", nullable = false)
+    private int rawSize;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+}
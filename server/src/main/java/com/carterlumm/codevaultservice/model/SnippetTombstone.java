@@ -0,0 +1,30 @@
+package com.carterlumm.codevaultservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Record of a deleted snippet, kept so delta-sync clients learn about the deletion.
+ * Purged once older than the sync retention window.
+ */
+@Entity
+@Table(name = "snippet_tombstone")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SnippetTombstone {
+    @Id
+    @Column(name = "snippet_id")
+    private UUID snippetId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private OffsetDateTime deletedAt;
+}
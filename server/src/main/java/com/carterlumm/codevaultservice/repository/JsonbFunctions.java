@@ -0,0 +1,30 @@
+package com.carterlumm.codevaultservice.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * JsonbFunctions
+ *
+ * Query functions over {@code jsonb} columns that Hibernate has no portable form for,
+ * registered on PostgreSQL only (via {@code META-INF/services}).
+ *
+ * {@value #CONTAINS}{@code (column, json)} renders the {@code @>} operator rather than the
+ * equivalent {@code jsonb_contains()} function: only the operator form can use a GIN index
+ * such as {@code idx_snippet_meta}.
+ */
+public class JsonbFunctions implements FunctionContributor {
+
+    public static final String CONTAINS = "jsonb_contains";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functions) {
+        if (!(functions.getDialect() instanceof PostgreSQLDialect)) return;
+        BasicType<Boolean> bool = functions.getTypeConfiguration().getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.BOOLEAN);
+        functions.getFunctionRegistry().registerPattern(CONTAINS, "(?1 @> cast(?2 as jsonb))", bool);
+    }
+}
@@ -0,0 +1,43 @@
+package com.carterlumm.codevaultservice.repository;
+
+import com.carterlumm.codevaultservice.model.SnippetBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface SnippetBlobRepository extends JpaRepository<SnippetBlob, String> {
+
+    // Row lock on the blob serialises against a concurrent release deleting it
+    @Modifying
+    @Query("update SnippetBlob b set b.refCount = b.refCount + 1 where b.hash = :hash")
+    int retain(String hash);
+
+    /** Inserts a first reference; 0 when another transaction inserted the same content first. */
+    @Modifying
+    @Query("""
+            insert into SnippetBlob (hash, codec, rawSize, data, refCount)
+            values (:hash, :codec, :rawSize, :data, 1)
+            on conflict do nothing
+            """)
+    int insertFirst(String hash, String codec, int rawSize, byte[] data);
+
+    @Modifying
+    @Query("update SnippetBlob b set b.refCount = b.refCount - 1 where b.hash = :hash")
+    int release(String hash);
+
+    @Modifying
+    @Query("delete from SnippetBlob b where b.hash = :hash and b.refCount <= 0")
+    int deleteIfUnreferenced(String hash);
+
+    /**
+     * Compressed bodies behind the given snippets of one owner; nothing is added to the
+     * persistence context. The owner keeps the snippet lookup to their partition.
+     */
+    @Query("select new com.carterlumm.codevaultservice.repository.StoredBody(s.id, b.hash, b.codec, b.rawSize, b.data) "
+            + "from Snippet s join SnippetBlob b on b.hash = s.bodyHash where s.userId = :userId and s.id in :ids")
+    List<StoredBody> findBySnippetIds(UUID userId, Collection<UUID> ids);
+}
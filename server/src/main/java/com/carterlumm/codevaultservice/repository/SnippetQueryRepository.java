@@ -0,0 +1,41 @@
+package com.carterlumm.codevaultservice.repository;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Read-optimized queries for list and search endpoints. Each page costs a constant
+ * number of statements: one for the rows and one for all of their tags.
+ * Lookups by id also take the owner, so they read a single {@code user_id} partition.
+ */
+public interface SnippetQueryRepository {
+
+    /** Longest body returned in summary mode. */
+    int SUMMARY_BODY_LENGTH = 280;
+
+    /**
+     * Selects projected rows matching {@code spec}.
+     *
+     * @param summary when true, {@code body} is truncated to {@link #SUMMARY_BODY_LENGTH} characters in SQL
+     */
+    List<SnippetRow> findRows(Specification<Snippet> spec, Sort sort, int limit, boolean summary);
+
+    /**
+     * Streams every row matching {@code spec} through a server-side cursor, {@code fetchSize}
+     * rows at a time. Must be consumed, and closed, inside a transaction.
+     */
+    Stream<SnippetRow> streamRows(Specification<Snippet> spec, Sort sort, int fetchSize);
+
+    /** Selects the owner's projected rows by id, in no particular order. */
+    List<SnippetRow> findRowsByIds(UUID userId, Collection<UUID> ids, boolean summary);
+
+    /** Tag names for all given snippets of one owner in a single query, keyed by snippet id. */
+    Map<UUID, List<String>> findTagNames(UUID userId, Collection<UUID> snippetIds);
+}
@@ -0,0 +1,98 @@
+package com.carterlumm.codevaultservice.repository;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+class SnippetQueryRepositoryImpl implements SnippetQueryRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<SnippetRow> findRows(Specification<Snippet> spec, Sort sort, int limit, boolean summary) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<SnippetRow> query = cb.createQuery(SnippetRow.class);
+        Root<Snippet> root = query.from(Snippet.class);
+        query.select(row(cb, root, summary))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(toOrders(sort, root, cb));
+        return em.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<SnippetRow> streamRows(Specification<Snippet> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<SnippetRow> query = cb.createQuery(SnippetRow.class);
+        Root<Snippet> root = query.from(Snippet.class);
+        query.select(row(cb, root, false))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(toOrders(sort, root, cb));
+        return em.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<SnippetRow> findRowsByIds(UUID userId, Collection<UUID> ids, boolean summary) {
+        if (ids.isEmpty()) return List.of();
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<SnippetRow> query = cb.createQuery(SnippetRow.class);
+        Root<Snippet> root = query.from(Snippet.class);
+        query.select(row(cb, root, summary))
+                .where(cb.equal(root.get("userId"), userId), root.get("id").in(ids));
+        return em.createQuery(query).getResultList();
+    }
+
+    @Override
+    public Map<UUID, List<String>> findTagNames(UUID userId, Collection<UUID> snippetIds) {
+        if (snippetIds.isEmpty()) return Map.of();
+        List<Object[]> pairs = em.createQuery("""
+                        select s.id, t.name from Snippet s join s.tags t
+                        where s.userId = :userId and s.id in :ids
+                        order by t.name
+                        """, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("ids", snippetIds)
+                .getResultList();
+
+        Map<UUID, List<String>> tags = new HashMap<>();
+        for (Object[] pair : pairs) {
+            tags.computeIfAbsent((UUID) pair[0], k -> new ArrayList<>()).add((String) pair[1]);
+        }
+        return tags;
+    }
+
+    private static CompoundSelection<SnippetRow> row(
+            CriteriaBuilder cb, Root<Snippet> root, boolean summary) {
+        Expression<String> body = summary
+                ? cb.substring(root.get("body"), 1, SUMMARY_BODY_LENGTH)
+                : root.get("body");
+        return cb.construct(SnippetRow.class,
+                root.get("id"),
+                root.get("title"),
+                body,
+                root.get("faviconUrl"),
+                root.get("language"),
+                root.get("meta"),
+                root.get("createdAt"),
+                root.get("updatedAt"),
+                root.get("version"),
+                root.get("bodyLength"),
+                root.get("bodyExternal"));
+    }
+}
@@ -1,41 +1,99 @@
 package com.carterlumm.codevaultservice.repository;
 
 import com.carterlumm.codevaultservice.model.Snippet;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface SnippetRepository extends JpaRepository<Snippet, UUID>, JpaSpecificationExecutor<Snippet> {
+public interface SnippetRepository extends JpaRepository<Snippet, UUID>, JpaSpecificationExecutor<Snippet>,
+        SnippetQueryRepository {
 
-    // Full-text + trigram hybrid search (native SQL for ranking)
+    /**
+     * Ranked search over one owner's snippets. Full-text and fuzzy-title candidates are
+     * collected separately so each side can use its own index (GIN over the stored
+     * {@code search_vector}, and the title trigram index via {@code %}), each capped at
+     * {@code :limit}, then merged by their best rank. No count query is issued.
+     */
     @Query(value = """
-      SELECT s.* FROM snippets
-      WHERE
-        to_tsvector('english', coalesce(s.title,'') || ' ' || coalesce(s.body,'')) @@ plainto_tsquery(:q)
-        OR similarity(s.title, :q) > 0.25
-      ORDER BY
-        GREATEST(
-          ts_rank_cd(to_tsvector('english', coalesce(s.title,'') || ' ' || coalesce(s.body,'')), plainto_tsquery(:q)),
-          similarity(s.title, :q)
-        ) DESC
+      WITH query AS (
+        SELECT plainto_tsquery('english', :q) AS tsq
+      ),
+      fts AS (
+        SELECT s.id, ts_rank_cd(s.search_vector, query.tsq) AS rank
+        FROM snippet s, query
+        WHERE s.user_id = :userId
+          AND s.search_vector @@ query.tsq
+        ORDER BY rank DESC
+        LIMIT :limit
+      ),
+      fuzzy AS (
+        SELECT s.id, similarity(s.title, :q) AS rank
+        FROM snippet s
+        WHERE s.user_id = :userId
+          AND s.title % :q
+        ORDER BY rank DESC
+        LIMIT :limit
+      )
+      SELECT c.id AS id, CAST(max(c.rank) AS float8) AS rank
+      FROM (SELECT * FROM fts UNION ALL SELECT * FROM fuzzy) c
+      GROUP BY c.id
+      ORDER BY rank DESC, c.id
+      LIMIT :limit
       """,
-            countQuery = """
-      SELECT count(*) FROM snippets
-      WHERE
-        to_tsvector('english', coalesce(s.title,'') || ' ' || coalesce(s.body,'')) @@ plainto_tsquery(:q)
-        OR similarity(s.title, :q) > 0.25
+            nativeQuery = true)
+    List<RankedId> searchRanked(@Param("userId") UUID userId, @Param("q") String q, @Param("limit") int limit);
+
+    /** Owner-scoped load for writes; reads only the owner's partition. */
+    Optional<Snippet> findByIdAndUserId(UUID id, UUID userId);
+
+    /** Owner of a snippet known only by id. Probes {@code idx_snippet_id} in every partition. */
+    @Query("select s.userId from Snippet s where s.id = :id")
+    Optional<UUID> findUserIdById(UUID id);
+
+    @Query("select new com.carterlumm.codevaultservice.repository.VaultStamp("
+            + "count(s), coalesce(sum(s.version), 0), max(s.updatedAt)) "
+            + "from Snippet s where s.userId = :userId")
+    VaultStamp stampByUserId(UUID userId);
+
+    // Uses idx_snippet_user_body_hash
+    @Query("select s.id from Snippet s where s.userId = :userId and s.bodyHash = :bodyHash order by s.createdAt, s.id")
+    List<UUID> findIdsByBodyHash(UUID userId, String bodyHash, Limit limit);
+
+    /**
+     * Tag and language counts over one owner's snippets in a single pass: one scan of the
+     * owner's rows and their tag links, aggregated by both grouping sets at once.
+     * {@code facet} tells the two kinds of row apart.
+     */
+    @Query(value = """
+      SELECT CASE WHEN GROUPING(t.name) = 0 THEN 'tag' ELSE 'language' END AS facet,
+             CASE WHEN GROUPING(t.name) = 0 THEN t.name ELSE s.language END AS value,
+             count(DISTINCT s.id) AS count
+      FROM snippet s
+      LEFT JOIN snippet_tag st ON st.user_id = s.user_id AND st.snippet_id = s.id
+      LEFT JOIN tag t ON t.id = st.tag_id
+      WHERE s.user_id = :userId
+      GROUP BY GROUPING SETS ((t.name), (s.language))
       """,
             nativeQuery = true)
-    Page<Snippet> search(@Param("q") String q, Pageable pageable);
+    List<FacetRow> countFacets(@Param("userId") UUID userId);
+
+    interface FacetRow {
+        String getFacet();
+        String getValue();
+        long getCount();
+    }
 
-    Page<Snippet> findByUserId(UUID userId, Pageable pageable);
+    interface RankedId {
+        UUID getId();
+        double getRank();
+    }
 
 }
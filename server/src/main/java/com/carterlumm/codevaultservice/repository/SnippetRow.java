@@ -0,0 +1,27 @@
+package com.carterlumm.codevaultservice.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a snippet row, selected column by column so list queries
+ * skip entity hydration, dirty-checking snapshots and the lazy tag collection.
+ * Tags are fetched separately in one batched query per page.
+ *
+ * {@code body} is the inline column: for an out-of-line body it is only a preview of
+ * {@code bodyLength} characters.
+ */
+public record SnippetRow(
+        UUID id,
+        String title,
+        String body,
+        String faviconUrl,
+        String language,
+        Map<String, Object> meta,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        long version,
+        int bodyLength,
+        boolean bodyExternal
+) {}
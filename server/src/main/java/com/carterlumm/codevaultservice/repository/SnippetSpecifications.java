@@ -0,0 +1,110 @@
+package com.carterlumm.codevaultservice.repository;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.model.Tag;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reusable {@link Specification}s for {@link SnippetRepository#findBy}.
+ */
+public final class SnippetSpecifications {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private SnippetSpecifications() {}
+
+    public static Specification<Snippet> ownedBy(UUID userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    /** Rows whose {@code field} is at or before {@code bound}. */
+    public static Specification<Snippet> notAfter(String field, OffsetDateTime bound) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.<OffsetDateTime>get(field), bound);
+    }
+
+    /**
+     * Keyset predicate: rows strictly after {@code (timestamp, id)} in {@code (field, id)}
+     * order, so paging seeks through the {@code (user_id, field, id)} index instead of
+     * scanning and discarding an OFFSET.
+     */
+    public static Specification<Snippet> after(String field, Sort.Direction direction,
+                                               OffsetDateTime timestamp, UUID id) {
+        return (root, query, cb) -> direction.isAscending()
+                ? cb.or(
+                        cb.greaterThan(root.<OffsetDateTime>get(field), timestamp),
+                        cb.and(cb.equal(root.get(field), timestamp), cb.greaterThan(root.<UUID>get("id"), id)))
+                : cb.or(
+                        cb.lessThan(root.<OffsetDateTime>get(field), timestamp),
+                        cb.and(cb.equal(root.get(field), timestamp), cb.lessThan(root.<UUID>get("id"), id)));
+    }
+
+    /**
+     * Snippets carrying the tag with this id, as a correlated {@code EXISTS} on
+     * {@code snippet_tag}. One per tag, so combining several requires all of them.
+     */
+    public static Specification<Snippet> hasTag(UUID tagId) {
+        return (root, query, cb) -> {
+            Subquery<Integer> sub = query.subquery(Integer.class);
+            Root<Snippet> self = sub.correlate(root);
+            Join<Snippet, Tag> tag = self.join("tags");
+            return cb.exists(sub.select(cb.literal(1)).where(cb.equal(tag.get("id"), tagId)));
+        };
+    }
+
+    public static Specification<Snippet> languageIn(Collection<String> languages) {
+        return (root, query, cb) -> root.get("language").in(languages);
+    }
+
+    /**
+     * Snippets whose {@code meta} has {@code key} set to {@code value}, either as a string or,
+     * when {@code value} spells one, as a JSON number or boolean. Rendered as {@code meta @> ...}
+     * so it can use the GIN index on {@code meta}; PostgreSQL only.
+     */
+    public static Specification<Snippet> metaEquals(String key, String value) {
+        return (root, query, cb) -> {
+            List<Predicate> any = new ArrayList<>();
+            for (String json : containmentCandidates(key, value)) {
+                any.add(cb.isTrue(cb.function(
+                        JsonbFunctions.CONTAINS, Boolean.class, root.get("meta"), cb.literal(json))));
+            }
+            return cb.or(any.toArray(Predicate[]::new));
+        };
+    }
+
+    private static List<String> containmentCandidates(String key, String value) {
+        try {
+            List<String> candidates = new ArrayList<>(2);
+            candidates.add(JSON.writeValueAsString(Map.of(key, value)));
+            JsonNode typed = scalar(value);
+            if (typed != null) candidates.add(JSON.writeValueAsString(Map.of(key, typed)));
+            return candidates;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** {@code value} as a JSON number or boolean, or null when it is neither. */
+    private static JsonNode scalar(String value) {
+        try {
+            JsonNode node = JSON.readTree(value);
+            return node != null && (node.isNumber() || node.isBoolean()) ? node : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
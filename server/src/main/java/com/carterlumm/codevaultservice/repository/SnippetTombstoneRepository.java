@@ -0,0 +1,33 @@
+package com.carterlumm.codevaultservice.repository;
+
+import com.carterlumm.codevaultservice.model.SnippetTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface SnippetTombstoneRepository extends JpaRepository<SnippetTombstone, UUID> {
+
+    // Plain insert: save() would merge, i.e. select first, because the id is assigned
+    @Modifying
+    @Query("insert into SnippetTombstone (snippetId, userId, deletedAt) values (:snippetId, :userId, :deletedAt)")
+    void insert(UUID snippetId, UUID userId, OffsetDateTime deletedAt);
+
+    /** Tombstones after {@code (since, id)} up to {@code until}, in (deleted_at, id) order. */
+    @Query("""
+            select t from SnippetTombstone t
+            where t.userId = :userId
+              and (t.deletedAt > :since or (t.deletedAt = :since and t.snippetId > :id))
+              and t.deletedAt <= :until
+            order by t.deletedAt, t.snippetId
+            """)
+    List<SnippetTombstone> findChanges(UUID userId, OffsetDateTime since, UUID id, OffsetDateTime until, Limit limit);
+
+    @Modifying
+    @Query("delete from SnippetTombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(OffsetDateTime cutoff);
+}
@@ -0,0 +1,10 @@
+package com.carterlumm.codevaultservice.repository;
+
+import java.util.UUID;
+
+/**
+ * The compressed full body behind one snippet, read as plain values rather than a managed
+ * {@code SnippetBlob}, so long reads such as an export do not accumulate blobs in the
+ * persistence context.
+ */
+public record StoredBody(UUID snippetId, String hash, String codec, int rawSize, byte[] data) {}
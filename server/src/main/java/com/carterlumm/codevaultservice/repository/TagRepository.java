@@ -2,12 +2,29 @@ package com.carterlumm.codevaultservice.repository;
 
 import com.carterlumm.codevaultservice.model.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, UUID> {
-    Optional<Tag> findByNameIgnoreCase(String name);
+    // Batched case-insensitive lookup; callers pass lower-cased names. Uses idx_tag_lower_name
+    @Query("select t from Tag t where lower(t.name) in :names")
+    List<Tag> findByLowerNameIn(@Param("names") Collection<String> names);
+
+    // Inserts the names that are not taken and returns only those rows; callers look up the
+    // rest in a second statement, whose fresh snapshot sees rows committed concurrently.
+    // Bound as one text[]: a collection parameter would expand to a row, ARRAY[(?, ?)]
+    @Query(value = """
+      INSERT INTO tag (name)
+      SELECT unnest(CAST(:names AS text[]))
+      ON CONFLICT (name) DO NOTHING
+      RETURNING id, name
+      """,
+            nativeQuery = true)
+    List<Tag> insertMissing(@Param("names") String[] names);
 }
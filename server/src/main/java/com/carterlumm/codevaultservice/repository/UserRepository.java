@@ -2,6 +2,9 @@ package com.carterlumm.codevaultservice.repository;
 
 import com.carterlumm.codevaultservice.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -9,4 +12,10 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    /** Replaces only the hash, so a background rehash cannot clobber other profile edits. */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :hash where u.id = :id")
+    int updatePasswordHash(UUID id, String hash);
 }
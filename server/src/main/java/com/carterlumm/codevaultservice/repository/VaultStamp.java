@@ -0,0 +1,11 @@
+package com.carterlumm.codevaultservice.repository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Cheap summary of a user's vault: how many snippets it holds, the sum of their row
+ * versions and when any of them last changed. Every update bumps a version and every create
+ * or delete moves the count, however close together they land, which makes it a validator
+ * for list responses.
+ */
+public record VaultStamp(long count, long versions, OffsetDateTime lastModified) {}
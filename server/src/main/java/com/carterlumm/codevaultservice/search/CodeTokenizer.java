@@ -0,0 +1,112 @@
+package com.carterlumm.codevaultservice.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * CodeTokenizer
+ *
+ * Splits snippet text into search terms the way developers type identifiers.
+ * Words are runs of letters, digits and underscores; every other character is a separator.
+ * Each word is further split on snake_case underscores and camelCase / digit boundaries,
+ * so {@code getUserById} yields {@code get}, {@code user}, {@code by}, {@code id}.
+ */
+public final class CodeTokenizer {
+
+    private CodeTokenizer() {}
+
+    /**
+     * Terms stored in the index: every word part plus the whole identifier,
+     * so both {@code parseJson} and {@code json} find {@code parseJson()}.
+     */
+    public static List<String> indexTerms(String text) {
+        List<String> out = new ArrayList<>();
+        forEachWord(text, word -> {
+            List<String> parts = splitIdentifier(word);
+            out.addAll(parts);
+            if (parts.size() > 1) out.add(word.toLowerCase(Locale.ROOT));
+        });
+        return out;
+    }
+
+    /**
+     * Terms a query must match. Only the word parts are used so that
+     * {@code getUser} matches {@code getUserById} as well as {@code get_user}.
+     */
+    public static Set<String> queryTerms(String text) {
+        Set<String> out = new LinkedHashSet<>();
+        forEachWord(text, word -> out.addAll(splitIdentifier(word)));
+        return out;
+    }
+
+    /**
+     * pg_trgm-compatible trigrams: each lower-cased alphanumeric word is padded with
+     * two leading spaces and one trailing space before being cut into 3-grams.
+     */
+    public static Set<String> trigrams(String text) {
+        Set<String> out = new LinkedHashSet<>();
+        if (text == null) return out;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        int n = lower.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(lower.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(lower.charAt(i))) i++;
+            if (i > start) {
+                String padded = "  " + lower.substring(start, i) + " ";
+                for (int j = 0; j + 3 <= padded.length(); j++) {
+                    out.add(padded.substring(j, j + 3));
+                }
+            }
+        }
+        return out;
+    }
+
+    static List<String> splitIdentifier(String word) {
+        List<String> parts = new ArrayList<>();
+        for (String segment : word.split("_")) {
+            int start = 0;
+            for (int i = 1; i <= segment.length(); i++) {
+                if (i == segment.length() || isBoundary(segment, i)) {
+                    parts.add(segment.substring(start, i).toLowerCase(Locale.ROOT));
+                    start = i;
+                }
+            }
+        }
+        parts.removeIf(String::isEmpty);
+        return parts;
+    }
+
+    private static boolean isBoundary(String segment, int i) {
+        char prev = segment.charAt(i - 1);
+        char cur = segment.charAt(i);
+        if (Character.isLowerCase(prev) && Character.isUpperCase(cur)) return true;
+        if (Character.isDigit(prev) != Character.isDigit(cur)) return true;
+        // "HTTPServer" -> "HTTP", "Server": split before the last capital of an acronym
+        return Character.isUpperCase(prev) && Character.isUpperCase(cur)
+                && i + 1 < segment.length() && Character.isLowerCase(segment.charAt(i + 1));
+    }
+
+    private static void forEachWord(String text, Consumer<String> sink) {
+        if (text == null) return;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            while (i < n && !isWordChar(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && isWordChar(text.charAt(i))) i++;
+            if (i > start) {
+                sink.accept(text.substring(start, i));
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,382 @@
+package com.carterlumm.codevaultservice.search;
+
+import com.carterlumm.codevaultservice.event.SnippetChangedEvent;
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.carterlumm.codevaultservice.repository.SnippetSpecifications;
+import com.carterlumm.codevaultservice.repository.VaultStamp;
+import com.carterlumm.codevaultservice.service.SnippetBodyStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * InMemorySnippetSearchEngine
+ *
+ * In-process inverted index sharded by owner, enabled with {@code app.search.engine=memory}.
+ * Each user's shard is built from the database on that user's first search and then kept up
+ * to date from {@link SnippetChangedEvent}s as creates, updates and deletes commit. Events
+ * that commit while a shard is still loading are queued and replayed onto it.
+ *
+ * Changes made through other instances raise no event here. As a fallback, each shard keeps
+ * the snippet count and version sum its contents imply (a {@link VaultStamp} without the
+ * timestamp) and, at most once per {@code app.search.memory.recheck-interval}, compares them
+ * with the owner's current stamp. A mismatch drops the shard and the search rebuilds it.
+ * Suits vaults that are searched far more often than they are edited.
+ *
+ * Shards live in a Caffeine cache bounded by the total number of indexed snippets
+ * ({@code app.search.memory.max-documents}) and dropped after {@code app.search.memory.idle-ttl}
+ * without a search. Metrics are published as {@code cache.*} with {@code cache=search-shards}.
+ *
+ * A shard holds two postings structures:
+ * <ul>
+ *   <li>term postings over title, tags and the full body (out-of-line bodies included),
+ *       produced by {@link CodeTokenizer}; a document matches when it contains every query term</li>
+ *   <li>trigram postings over the title for fuzzy matches, scored with the same
+ *       Jaccard similarity as pg_trgm's {@code similarity()}</li>
+ * </ul>
+ * Results are ranked by the greater of the two scores, as the Postgres query does.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemorySnippetSearchEngine implements SnippetSearchEngine {
+
+    static final double SIMILARITY_THRESHOLD = 0.3;   // pg_trgm's default for %
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float TAG_WEIGHT = 2.0f;
+    private static final float BODY_WEIGHT = 1.0f;
+    private static final int LOAD_BATCH = 500;
+
+    private final SnippetRepository snippetRepo;
+    private final SnippetBodyStore bodyStore;
+    private final Cache<UUID, Shard> shards;
+    private final ConcurrentMap<UUID, PendingBuild> builds = new ConcurrentHashMap<>();
+    private final long recheckNanos;
+
+    public InMemorySnippetSearchEngine(SnippetRepository snippetRepo, SnippetBodyStore bodyStore,
+                                       MeterRegistry registry,
+                                       @Value("${app.search.memory.max-documents:200000}") long maxDocuments,
+                                       @Value("${app.search.memory.idle-ttl:10m}") Duration idleTtl,
+                                       @Value("${app.search.memory.recheck-interval:30s}") Duration recheckInterval) {
+        this.snippetRepo = snippetRepo;
+        this.bodyStore = bodyStore;
+        this.recheckNanos = recheckInterval.toNanos();
+        this.shards = Caffeine.newBuilder()
+                .maximumWeight(maxDocuments)
+                .weigher((UUID userId, Shard shard) -> shard.size() + 1)
+                .expireAfterAccess(idleTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, shards, "search-shards");
+    }
+
+    /** Runs in the caller's read-only transaction, which the stamp check and shard build use. */
+    @Override
+    @Timed(value = "snippet.search", extraTags = {"engine", "memory"}, histogram = true)
+    public List<SearchHit> search(UUID userId, String query, int limit) {
+        Shard shard = shards.getIfPresent(userId);
+        if (shard != null && shard.recheckDue(recheckNanos)) {
+            if (shard.matches(snippetRepo.stampByUserId(userId))) {
+                shard.checked();
+            } else {
+                shards.asMap().remove(userId, shard);
+                shard = null;
+            }
+        }
+        if (shard == null) shard = build(userId);
+        return shard.search(query, limit);
+    }
+
+    /**
+     * Applies a committed change to the owner's shard, or queues it when the shard is
+     * still loading. Owners without a shard are skipped; their first search loads one.
+     */
+    @TransactionalEventListener
+    public void onSnippetChanged(SnippetChangedEvent event) {
+        PendingBuild pending = builds.get(event.userId());
+        if (pending != null && pending.offer(event)) return;
+        Shard shard = shards.getIfPresent(event.userId());
+        if (shard != null) shard.apply(event);
+    }
+
+    /**
+     * Loads the owner's shard outside any cache lock; concurrent searches for the same owner
+     * wait for the one build rather than starting their own.
+     */
+    private Shard build(UUID userId) {
+        PendingBuild mine = new PendingBuild();
+        PendingBuild running = builds.putIfAbsent(userId, mine);
+        if (running != null) return running.result.join();
+        try {
+            // Changes committing after this read are replayed from the queue. One whose event
+            // was still in flight is counted twice, so the next recheck rebuilds rather than misses it
+            Shard shard = loadShard(userId, snippetRepo.stampByUserId(userId));
+            shards.put(userId, shard);
+            mine.publish(shard);
+            return shard;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            builds.remove(userId, mine);
+        }
+    }
+
+    private Shard loadShard(UUID userId, VaultStamp stamp) {
+        Shard shard = new Shard(stamp);
+        try (Stream<SnippetRow> rows = snippetRepo.streamRows(
+                SnippetSpecifications.ownedBy(userId), Sort.by("createdAt", "id"), LOAD_BATCH)) {
+            List<SnippetRow> chunk = new ArrayList<>(LOAD_BATCH);
+            Iterator<SnippetRow> it = rows.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() == LOAD_BATCH || !it.hasNext()) {
+                    index(shard, userId, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        return shard;
+    }
+
+    private void index(Shard shard, UUID userId, List<SnippetRow> chunk) {
+        Map<UUID, List<String>> tags = snippetRepo.findTagNames(userId, chunk.stream().map(SnippetRow::id).toList());
+        // Inline bodies of large snippets are only previews
+        Map<UUID, String> fullBodies = bodyStore.loadFull(userId, chunk);
+        for (SnippetRow row : chunk) {
+            shard.put(row.id(), row.title(), fullBodies.getOrDefault(row.id(), row.body()),
+                    tags.getOrDefault(row.id(), List.of()));
+        }
+    }
+
+    /** A shard being loaded, and the changes that committed meanwhile. */
+    private static final class PendingBuild {
+        private final CompletableFuture<Shard> result = new CompletableFuture<>();
+        private final Lock lock = new ReentrantLock();
+        private List<SnippetChangedEvent> missed = new ArrayList<>();
+
+        /** Queues {@code event} for replay; false once the shard has been published. */
+        boolean offer(SnippetChangedEvent event) {
+            lock.lock();
+            try {
+                if (missed == null) return false;
+                missed.add(event);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Replays the queued changes; the shard must already be in the cache. */
+        void publish(Shard shard) {
+            lock.lock();
+            try {
+                missed.forEach(shard::apply);
+                missed = null;
+            } finally {
+                lock.unlock();
+            }
+            result.complete(shard);
+        }
+    }
+
+    /**
+     * One user's index. Readers share the lock; updates take it exclusively. {@code count}
+     * and {@code versions} follow the applied events, so they match the owner's
+     * {@link VaultStamp} as long as every change has reached this instance; a miscount only
+     * costs a rebuild.
+     */
+    static final class Shard {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Map<UUID, Float>> termPostings = new HashMap<>();
+        private final Map<String, Set<UUID>> trigramPostings = new HashMap<>();
+        private final Map<UUID, Document> documents = new HashMap<>();
+        private long count;
+        private long versions;
+        private volatile long checkedAt = System.nanoTime();
+
+        Shard(VaultStamp stamp) {
+            this.count = stamp.count();
+            this.versions = stamp.versions();
+        }
+
+        boolean recheckDue(long intervalNanos) {
+            return System.nanoTime() - checkedAt >= intervalNanos;
+        }
+
+        void checked() {
+            checkedAt = System.nanoTime();
+        }
+
+        boolean matches(VaultStamp stamp) {
+            lock.readLock().lock();
+            try {
+                return count == stamp.count() && versions == stamp.versions();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void apply(SnippetChangedEvent event) {
+            switch (event.type()) {
+                case CREATED -> {
+                    put(event.snippetId(), event.title(), event.body(), event.tags());
+                    track(1, event.version());
+                }
+                // Each committed update bumps the row version once
+                case UPDATED -> {
+                    put(event.snippetId(), event.title(), event.body(), event.tags());
+                    track(0, 1);
+                }
+                case DELETED -> {
+                    remove(event.snippetId());
+                    track(-1, -event.version());
+                }
+            }
+        }
+
+        private void track(long countDelta, long versionDelta) {
+            lock.writeLock().lock();
+            try {
+                count += countDelta;
+                versions += versionDelta;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return documents.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(UUID id, String title, String body, List<String> tags) {
+            Map<String, Float> terms = new HashMap<>();
+            addTerms(terms, title, TITLE_WEIGHT);
+            addTerms(terms, body, BODY_WEIGHT);
+            if (tags != null) tags.forEach(t -> addTerms(terms, t, TAG_WEIGHT));
+            Document doc = new Document(terms, CodeTokenizer.trigrams(title));
+
+            lock.writeLock().lock();
+            try {
+                unindex(id);
+                documents.put(id, doc);
+                doc.terms.forEach((term, weight) ->
+                        termPostings.computeIfAbsent(term, k -> new HashMap<>()).put(id, weight));
+                doc.titleTrigrams.forEach(tri ->
+                        trigramPostings.computeIfAbsent(tri, k -> new HashSet<>()).add(id));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID id) {
+            lock.writeLock().lock();
+            try {
+                unindex(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<SearchHit> search(String query, int limit) {
+            Set<String> terms = CodeTokenizer.queryTerms(query);
+            Set<String> queryTrigrams = CodeTokenizer.trigrams(query);
+            Map<UUID, Double> scores = new HashMap<>();
+
+            lock.readLock().lock();
+            try {
+                scoreTerms(terms, scores);
+                scoreTrigrams(queryTrigrams, scores);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            return scores.entrySet().stream()
+                    .map(e -> new SearchHit(e.getKey(), e.getValue()))
+                    .sorted(SearchHit.ORDER)
+                    .limit(limit)
+                    .toList();
+        }
+
+        /** Conjunctive match: walk the rarest term's postings and keep docs holding every term. */
+        private void scoreTerms(Set<String> terms, Map<UUID, Double> scores) {
+            if (terms.isEmpty()) return;
+            List<Map<UUID, Float>> postings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<UUID, Float> p = termPostings.get(term);
+                if (p == null) return;
+                postings.add(p);
+            }
+            postings.sort(Comparator.comparingInt(Map::size));
+            int n = documents.size();
+            outer:
+            for (UUID id : postings.get(0).keySet()) {
+                double score = 0;
+                for (Map<UUID, Float> p : postings) {
+                    Float weight = p.get(id);
+                    if (weight == null) continue outer;
+                    score += weight * Math.log(1.0 + (double) n / p.size());
+                }
+                scores.merge(id, score, Math::max);
+            }
+        }
+
+        private void scoreTrigrams(Set<String> queryTrigrams, Map<UUID, Double> scores) {
+            if (queryTrigrams.isEmpty()) return;
+            Map<UUID, Integer> shared = new HashMap<>();
+            for (String tri : queryTrigrams) {
+                Set<UUID> p = trigramPostings.get(tri);
+                if (p != null) p.forEach(id -> shared.merge(id, 1, Integer::sum));
+            }
+            shared.forEach((id, common) -> {
+                int union = queryTrigrams.size() + documents.get(id).titleTrigrams.size() - common;
+                double similarity = (double) common / union;
+                if (similarity > SIMILARITY_THRESHOLD) scores.merge(id, similarity, Math::max);
+            });
+        }
+
+        private void unindex(UUID id) {
+            Document old = documents.remove(id);
+            if (old == null) return;
+            old.terms.keySet().forEach(term -> removePosting(termPostings, term, id));
+            old.titleTrigrams.forEach(tri -> {
+                Set<UUID> p = trigramPostings.get(tri);
+                if (p != null && p.remove(id) && p.isEmpty()) trigramPostings.remove(tri);
+            });
+        }
+
+        private static void removePosting(Map<String, Map<UUID, Float>> postings, String key, UUID id) {
+            Map<UUID, Float> p = postings.get(key);
+            if (p != null && p.remove(id) != null && p.isEmpty()) postings.remove(key);
+        }
+
+        private static void addTerms(Map<String, Float> terms, String text, float weight) {
+            for (String term : CodeTokenizer.indexTerms(text)) terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    private record Document(Map<String, Float> terms, Set<String> titleTrigrams) {}
+}
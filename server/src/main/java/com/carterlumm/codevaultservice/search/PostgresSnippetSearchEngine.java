@@ -0,0 +1,36 @@
+package com.carterlumm.codevaultservice.search;
+
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * PostgresSnippetSearchEngine
+ *
+ * Default engine. Delegates every search to the native full-text + trigram query,
+ * which merges two index-driven top-N candidate sets (GIN over {@code search_vector}
+ * and the title trigram index) by rank. Holds no state, so every instance answers
+ * from the same committed data.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresSnippetSearchEngine implements SnippetSearchEngine {
+
+    private final SnippetRepository snippetRepo;
+
+    public PostgresSnippetSearchEngine(SnippetRepository snippetRepo) {
+        this.snippetRepo = snippetRepo;
+    }
+
+    @Override
+    @Timed(value = "snippet.search", extraTags = {"engine", "postgres"}, histogram = true)
+    public List<SearchHit> search(UUID userId, String query, int limit) {
+        return snippetRepo.searchRanked(userId, query, limit).stream()
+                .map(r -> new SearchHit(r.getId(), r.getRank()))
+                .toList();
+    }
+}
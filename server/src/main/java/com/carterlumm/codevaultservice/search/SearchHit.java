@@ -0,0 +1,21 @@
+package com.carterlumm.codevaultservice.search;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * A single ranked search result: the matching snippet id and its relevance score.
+ * Scores are only comparable within one engine.
+ */
+public record SearchHit(UUID id, double rank) {
+
+    /**
+     * Rank descending, then id ascending in Postgres {@code uuid} order (unsigned bytes),
+     * so every engine breaks ties the same way and search cursors stay stable.
+     */
+    public static final Comparator<SearchHit> ORDER = Comparator.comparingDouble(SearchHit::rank).reversed()
+            .thenComparing(SearchHit::id, (a, b) -> {
+                int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+                return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+            });
+}
@@ -0,0 +1,27 @@
+package com.carterlumm.codevaultservice.search;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * SnippetSearchEngine
+ *
+ * Pluggable full-text search over a single user's snippets. Implementations return the
+ * top-N matching snippet ids ordered by relevance; hydrating the entities is left to the caller.
+ * No total count is computed, so the cost of a search is bounded by {@code limit}
+ * rather than by the size of the vault.
+ *
+ * Selected with {@code app.search.engine}: {@code postgres} (default) or {@code memory}.
+ */
+public interface SnippetSearchEngine {
+
+    /**
+     * Searches the snippets owned by {@code userId}.
+     *
+     * @param userId owner whose snippets are searched
+     * @param query  raw user query
+     * @param limit  maximum number of hits to return
+     * @return hits ordered by rank descending, ties broken by id
+     */
+    List<SearchHit> search(UUID userId, String query, int limit);
+}
@@ -0,0 +1,14 @@
+package com.carterlumm.codevaultservice.security;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal set by {@link JwtAuthFilter} for authenticated requests.
+ * Carries the user id so services never have to look it up from the email.
+ */
+public record AuthenticatedUser(UUID id, String email) implements Principal {
+
+    @Override
+    public String getName() { return email; }
+}
@@ -1,6 +1,9 @@
 package com.carterlumm.codevaultservice.security;
 
 import com.carterlumm.codevaultservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,24 +15,60 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates bearer tokens. Time spent here, excluding the rest of the chain, is
+ * recorded as {@code auth.jwt.filter} tagged by outcome: {@code anonymous} (no token),
+ * {@code valid}, {@code invalid} or {@code unknown_user}.
+ */
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
+    private final UserIdResolver userIdResolver;
+    private final Timer anonymous;
+    private final Timer valid;
+    private final Timer invalid;
+    private final Timer unknownUser;
 
-    public JwtAuthFilter(JwtService jwtService) { this.jwtService = jwtService; }
+    public JwtAuthFilter(JwtService jwtService, UserIdResolver userIdResolver, MeterRegistry registry) {
+        this.jwtService = jwtService;
+        this.userIdResolver = userIdResolver;
+        this.anonymous = timer(registry, "anonymous");
+        this.valid = timer(registry, "valid");
+        this.invalid = timer(registry, "invalid");
+        this.unknownUser = timer(registry, "unknown_user");
+    }
+
+    private static Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.filter").tag("outcome", outcome).register(registry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
             throws ServletException, IOException {
+        long start = System.nanoTime();
+        Timer outcome = anonymous;
         String header = req.getHeader(HttpHeaders.AUTHORIZATION);
         if (header != null && header.startsWith("Bearer ")) {
+            outcome = invalid;
             String token = header.substring(7);
             try {
-                String email = jwtService.validateAndGetSubject(token);
-                var auth = new UsernamePasswordAuthenticationToken(email, null, List.of());
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                Claims claims = jwtService.validateAndGetClaims(token);
+                String email = claims.getSubject();
+                // Tokens issued before the uid claim fall back to a cached email lookup
+                String uid = claims.get(JwtService.USER_ID_CLAIM, String.class);
+                Optional<UUID> userId = uid != null ? Optional.of(UUID.fromString(uid)) : userIdResolver.resolve(email);
+                outcome = userId.isPresent() ? valid : unknownUser;
+                userId.ifPresent(id -> {
+                    var principal = new AuthenticatedUser(id, email);
+                    var auth = new UsernamePasswordAuthenticationToken(principal, null, List.of());
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                });
             } catch (Exception ignored) { /* invalid token -> unauthenticated */ }
         }
+        outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         chain.doFilter(req, res);
     }
 }
@@ -0,0 +1,117 @@
+package com.carterlumm.codevaultservice.security;
+
+import com.carterlumm.codevaultservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * PasswordHasher
+ *
+ * Runs {@link PasswordEncoder} work on a dedicated, fixed-size pool so a burst of logins
+ * cannot occupy every request thread with CPU-bound BCrypt. At most {@code threads}
+ * hashes run at once and {@code queue} more may wait; anything beyond that is rejected
+ * immediately with a 429 rather than piling up behind the pool.
+ *
+ * Metrics: {@code auth.password.hash} (latency of the hash itself, by operation),
+ * {@code auth.password.rejected}, and the standard {@code executor.*} meters for the pool
+ * ({@code executor.queued} is the queue depth).
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService monitored;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder encoder, MeterRegistry registry,
+                          @Value("${app.auth.hash-threads:0}") int threads,
+                          @Value("${app.auth.hash-queue:64}") int queue) {
+        this.encoder = encoder;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), daemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+        this.monitored = ExecutorServiceMetrics.monitor(registry, pool, "password-hasher", List.of());
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("op", "encode").register(registry);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("op", "matches").register(registry);
+        this.rejected = Counter.builder("auth.password.rejected").register(registry);
+    }
+
+    public String encode(CharSequence raw) {
+        return await(submit(() -> encodeTimer.record(() -> encoder.encode(raw))));
+    }
+
+    public boolean matches(CharSequence raw, String hash) {
+        return await(submit(() -> matchesTimer.record(() -> encoder.matches(raw, hash))));
+    }
+
+    /**
+     * Hashes in the background and hands the result to {@code onHashed}, e.g. to re-encode
+     * a password after a successful login. Skipped silently when the pool is saturated;
+     * it will simply be tried again on a later login.
+     */
+    public void encodeLater(CharSequence raw, Consumer<String> onHashed) {
+        try {
+            monitored.execute(() -> onHashed.accept(encodeTimer.record(() -> encoder.encode(raw))));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+        }
+    }
+
+    /** True when {@code hash} was produced with weaker settings than the encoder now uses. */
+    public boolean needsRehash(String hash) {
+        return encoder.upgradeEncoding(hash);
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return monitored.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Authentication is busy, try again shortly", RETRY_AFTER);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "password-hasher-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,38 @@
+package com.carterlumm.codevaultservice.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over the caller's {@link RateLimiter} budget with 429 and a
+ * {@code Retry-After} header before they reach a controller or the connection pool.
+ * Runs after {@link JwtAuthFilter} so authenticated callers are limited by user id.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter limiter;
+
+    public RateLimitFilter(RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = limiter.acquire(req);
+        if (wait > 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            res.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            res.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+            return;
+        }
+        chain.doFilter(req, res);
+    }
+}
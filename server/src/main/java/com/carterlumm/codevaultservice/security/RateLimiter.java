@@ -0,0 +1,173 @@
+package com.carterlumm.codevaultservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RateLimiter
+ *
+ * Per-caller request limits for {@link RateLimitFilter}, one limit per route group:
+ * <ul>
+ *   <li>{@code auth}: login, register and refresh, always keyed by client IP</li>
+ *   <li>{@code search}: {@code GET /api/v1/snippets/search}</li>
+ *   <li>{@code write}: any other non-GET under {@code /api/}</li>
+ *   <li>{@code read}: remaining GETs under {@code /api/}</li>
+ * </ul>
+ * The other groups are keyed by user id when the request carries a valid token and by IP
+ * otherwise. The IP is the one Tomcat resolves under {@code server.forward-headers-strategy},
+ * i.e. the forwarded client when the request came through a trusted proxy. Each limit is {@code app.rate-limit.<group>.rate} ({@code permits/period},
+ * e.g. {@code 20/1s}) with room for {@code burst} back-to-back requests.
+ *
+ * Buckets use GCRA: the whole bucket is one {@link AtomicLong} holding the theoretical
+ * arrival time of the next request, advanced with a CAS, so the hot path takes no lock.
+ * A bucket whose arrival time has passed is full, indistinguishable from a missing one,
+ * so {@link #sweep()} drops those without losing any state. Each group holds at most
+ * {@code max-keys} buckets; callers arriving while the table is full share one overflow
+ * bucket until the next sweep makes room.
+ *
+ * Metrics: {@code http.server.requests.throttled} and {@code rate.limit.buckets}, by group.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Object OVERFLOW = new Object();
+
+    private final boolean enabled;
+    private final int maxKeys;
+    private final List<Group> groups;
+
+    public RateLimiter(MeterRegistry registry,
+                       @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.rate-limit.max-keys:100000}") int maxKeys,
+                       @Value("${app.rate-limit.auth.rate:10/1m}") String authRate,
+                       @Value("${app.rate-limit.auth.burst:10}") int authBurst,
+                       @Value("${app.rate-limit.search.rate:10/1s}") String searchRate,
+                       @Value("${app.rate-limit.search.burst:20}") int searchBurst,
+                       @Value("${app.rate-limit.write.rate:20/1s}") String writeRate,
+                       @Value("${app.rate-limit.write.burst:40}") int writeBurst,
+                       @Value("${app.rate-limit.read.rate:50/1s}") String readRate,
+                       @Value("${app.rate-limit.read.burst:100}") int readBurst) {
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        // Plain prefix checks: a path-pattern matcher re-parses the URI on every call
+        this.groups = List.of(
+                new Group("auth", req -> req.getRequestURI().startsWith("/api/auth/"),
+                        Limit.parse(authRate, authBurst), true, registry),
+                new Group("search", req -> isRead(req) && req.getRequestURI().equals("/api/v1/snippets/search"),
+                        Limit.parse(searchRate, searchBurst), false, registry),
+                new Group("write", req -> !isRead(req) && req.getRequestURI().startsWith("/api/"),
+                        Limit.parse(writeRate, writeBurst), false, registry),
+                new Group("read", req -> req.getRequestURI().startsWith("/api/"),
+                        Limit.parse(readRate, readBurst), false, registry));
+    }
+
+    /**
+     * Charges one request to the caller's bucket for the request's route group.
+     *
+     * @return 0 when the request may proceed, otherwise nanoseconds until it would be allowed
+     */
+    public long acquire(HttpServletRequest req) {
+        if (!enabled) return 0;
+        for (Group g : groups) {
+            if (!g.matcher.matches(req)) continue;
+            long wait = acquire(g.bucket(subject(req, g.byIp), maxKeys), g.limit, System.nanoTime());
+            if (wait > 0) g.throttled.increment();
+            return wait;
+        }
+        return 0;
+    }
+
+    /** One GCRA step on a bucket's theoretical arrival time. */
+    static long acquire(AtomicLong tat, Limit limit, long now) {
+        for (;;) {
+            long prev = tat.get();
+            long next = Math.max(prev, now) + limit.interval();
+            long wait = next - now - limit.tolerance();
+            if (wait > 0) return wait;
+            if (tat.compareAndSet(prev, next)) return 0;
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely. A request racing with the removal may
+     * charge the dropped bucket, which gives that caller at most one extra request.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval:1m}")
+    public void sweep() {
+        long now = System.nanoTime();
+        groups.forEach(g -> g.buckets.values().removeIf(tat -> tat.get() <= now));
+    }
+
+    private static boolean isRead(HttpServletRequest req) {
+        String m = req.getMethod();
+        return HttpMethod.GET.matches(m) || HttpMethod.HEAD.matches(m) || HttpMethod.OPTIONS.matches(m);
+    }
+
+    private static Object subject(HttpServletRequest req, boolean byIp) {
+        if (!byIp) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user) return user.id();
+        }
+        return req.getRemoteAddr();
+    }
+
+    int bucketCount() {
+        return groups.stream().mapToInt(g -> g.buckets.size()).sum();
+    }
+
+    /**
+     * A GCRA limit in nanoseconds.
+     *
+     * @param interval  time one request "costs"
+     * @param tolerance how far ahead of now a caller may run, i.e. {@code burst * interval}
+     */
+    record Limit(long interval, long tolerance) {
+
+        static Limit of(int permits, Duration period, int burst) {
+            if (permits < 1 || burst < 1) throw new IllegalArgumentException("permits and burst must be positive");
+            long interval = period.toNanos() / permits;
+            return new Limit(interval, interval * burst);
+        }
+
+        /** Parses {@code permits/period}, e.g. {@code 20/1s} or {@code 10/1m}. */
+        static Limit parse(String rate, int burst) {
+            int slash = rate.indexOf('/');
+            if (slash < 0) throw new IllegalArgumentException("Rate must look like 20/1s, got " + rate);
+            return of(Integer.parseInt(rate.substring(0, slash).trim()),
+                    DurationStyle.detectAndParse(rate.substring(slash + 1).trim()), burst);
+        }
+    }
+
+    /** A route group and its buckets, keyed by user id or client IP. */
+    private record Group(String name, RequestMatcher matcher, Limit limit, boolean byIp,
+                         ConcurrentHashMap<Object, AtomicLong> buckets, Counter throttled) {
+
+        Group(String name, RequestMatcher matcher, Limit limit, boolean byIp, MeterRegistry registry) {
+            this(name, matcher, limit, byIp, new ConcurrentHashMap<>(),
+                    Counter.builder("http.server.requests.throttled").tag("group", name).register(registry));
+            Gauge.builder("rate.limit.buckets", buckets, ConcurrentHashMap::size).tag("group", name).register(registry);
+        }
+
+        AtomicLong bucket(Object subject, int maxKeys) {
+            AtomicLong tat = buckets.get(subject);
+            if (tat != null) return tat;
+            if (buckets.size() >= maxKeys) subject = OVERFLOW;
+            return buckets.computeIfAbsent(subject, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+    }
+}
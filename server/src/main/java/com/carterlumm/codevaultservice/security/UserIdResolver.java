@@ -0,0 +1,36 @@
+package com.carterlumm.codevaultservice.security;
+
+import com.carterlumm.codevaultservice.model.User;
+import com.carterlumm.codevaultservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maps a token subject (email) to the user id for access tokens issued before the
+ * {@code uid} claim existed. Bounded and short-lived: once those tokens have expired
+ * the cache simply stops being consulted.
+ */
+@Component
+public class UserIdResolver {
+
+    private final UserRepository users;
+    private final Cache<String, UUID> idsByEmail = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public UserIdResolver(UserRepository users) { this.users = users; }
+
+    public Optional<UUID> resolve(String email) {
+        UUID cached = idsByEmail.getIfPresent(email);
+        if (cached != null) return Optional.of(cached);
+        Optional<UUID> id = users.findByEmail(email).map(User::getId);
+        id.ifPresent(v -> idsByEmail.put(email, v));
+        return id;
+    }
+}
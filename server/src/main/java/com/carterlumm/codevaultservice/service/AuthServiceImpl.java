@@ -3,18 +3,19 @@ package com.carterlumm.codevaultservice.service;
 import com.carterlumm.codevaultservice.dto.*;
 import com.carterlumm.codevaultservice.model.User;
 import com.carterlumm.codevaultservice.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.carterlumm.codevaultservice.security.PasswordHasher;
+import io.jsonwebtoken.JwtException;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuthServiceImpl implements AuthService {
     private final UserRepository users;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher hasher;
     private final JwtService jwt;
 
-    public AuthServiceImpl(UserRepository users, PasswordEncoder encoder, JwtService jwt) {
+    public AuthServiceImpl(UserRepository users, PasswordHasher hasher, JwtService jwt) {
         this.users = users;
-        this.encoder = encoder;
+        this.hasher = hasher;
         this.jwt = jwt;
     }
 
@@ -28,12 +29,12 @@ public class AuthServiceImpl implements AuthService {
         User u = new User();
         u.setEmail(req.email().toLowerCase().trim());
         u.setDisplayName(req.displayName().toLowerCase());
-        u.setPasswordHash(encoder.encode(req.password()));
+        u.setPasswordHash(hasher.encode(req.password()));
         u.setServerUrl(req.serverUrl());
         users.save(u);
 
-        String access = jwt.generateAccessToken(u.getEmail());
-        String refresh = jwt.generateRefreshToken(u.getEmail());
+        String access = jwt.generateAccessToken(u.getId(), u.getEmail());
+        String refresh = jwt.generateRefreshToken(u.getId(), u.getEmail());
         return new AuthResponse(access, refresh, jwt.getAccessTtlSeconds());
     }
 
@@ -42,25 +43,29 @@ public class AuthServiceImpl implements AuthService {
         User u = users.findByEmail(req.email().toLowerCase().trim())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
 
-        if (!encoder.matches(req.password(), u.getPasswordHash()))
+        if (!hasher.matches(req.password(), u.getPasswordHash()))
             throw new IllegalArgumentException("Invalid credentials");
+        if (hasher.needsRehash(u.getPasswordHash()))
+            hasher.encodeLater(req.password(), hash -> users.updatePasswordHash(u.getId(), hash));
 
-        String access = jwt.generateAccessToken(u.getEmail());
-        String refresh = jwt.generateRefreshToken(u.getEmail());
+        String access = jwt.generateAccessToken(u.getId(), u.getEmail());
+        String refresh = jwt.generateRefreshToken(u.getId(), u.getEmail());
         return new AuthResponse(access, refresh, jwt.getAccessTtlSeconds());
     }
 
     @Override
     public AuthResponse refresh(String refreshToken) {
-        if (!jwt.isValid(refreshToken))
+        String email;
+        try {
+            email = jwt.validateAndGetSubject(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid or expired refresh token");
-
-        String email = jwt.validateAndGetSubject(refreshToken);
+        }
         User user = users.findByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        String newAccess = jwt.generateAccessToken(user.getEmail());
-        String newRefresh = jwt.generateRefreshToken(user.getEmail());
+        String newAccess = jwt.generateAccessToken(user.getId(), user.getEmail());
+        String newRefresh = jwt.generateRefreshToken(user.getId(), user.getEmail());
         return new AuthResponse(newAccess, newRefresh, jwt.getAccessTtlSeconds());
     }
 
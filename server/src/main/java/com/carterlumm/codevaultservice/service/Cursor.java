@@ -0,0 +1,99 @@
+package com.carterlumm.codevaultservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor
+ *
+ * Position of the last row a client has seen in a keyset-paginated listing.
+ * Encoded as an opaque URL-safe token so clients cannot depend on its contents.
+ *
+ * @param position sort key of the last row (a timestamp, or {@code seen@rank} for search)
+ * @param id       id of the last row, used to break ties on equal sort keys
+ */
+public record Cursor(String position, UUID id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /** Cursor for listings ordered by a timestamp column and then id. */
+    public static Cursor of(OffsetDateTime timestamp, UUID id) {
+        return new Cursor(timestamp.toInstant().toString(), id);
+    }
+
+    /** Cursor for ranked search results; {@code seen} is how many hits the client already has. */
+    public static Cursor ofRank(double rank, int seen, UUID id) {
+        return new Cursor(seen + "@" + rank, id);
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((position + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}.
+     *
+     * @throws ResponseStatusException 400 if the token is malformed
+     */
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(raw.substring(0, sep), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw invalid();
+        }
+    }
+
+    public OffsetDateTime timestamp() {
+        try {
+            return Instant.parse(position).atOffset(ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * @throws ResponseStatusException 400 unless the position holds a non-negative hit count
+     */
+    public int seen() {
+        try {
+            int seen = Integer.parseInt(position.substring(0, rankSeparator()));
+            if (seen >= 0) return seen;
+        } catch (NumberFormatException e) {
+            // falls through to 400
+        }
+        throw invalid();
+    }
+
+    /**
+     * @throws ResponseStatusException 400 unless the position holds a finite rank
+     */
+    public double rank() {
+        try {
+            double rank = Double.parseDouble(position.substring(rankSeparator() + 1));
+            if (Double.isFinite(rank)) return rank;
+        } catch (NumberFormatException e) {
+            // falls through to 400
+        }
+        throw invalid();
+    }
+
+    private int rankSeparator() {
+        int at = position.indexOf('@');
+        if (at < 0) throw invalid();
+        return at;
+    }
+
+    static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -1,13 +1,24 @@
 package com.carterlumm.codevaultservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * JwtService
@@ -19,21 +30,34 @@ import java.util.Date;
 @Service
 public class JwtService {
 
+    /** Claim carrying the user id, so requests can be authorised without a user lookup. */
+    public static final String USER_ID_CLAIM = "uid";
+
     private final SecretKey key;
+    private final JwtParser parser;
+    private final Cache<ByteBuffer, Claims> verified;
     private final long accessTtlSeconds;
     private final long refreshTtlSeconds;
 
     /**
      * Initializes JWT service using configuration values.
      *
-     * @param secret      signing secret from app properties
-     * @param ttlMinutes  access token lifespan in minutes
+     * @param secret            signing secret from app properties
+     * @param ttlMinutes        access token lifespan in minutes
+     * @param verifiedCacheSize maximum number of verified tokens remembered
      */
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.ttlMinutes}") long ttlMinutes
+            @Value("${app.jwt.ttlMinutes}") long ttlMinutes,
+            @Value("${app.jwt.verifiedCacheSize:10000}") long verifiedCacheSize
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(key).build(); // immutable and thread-safe
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(Expiry.<ByteBuffer, Claims>creating((digest, claims) ->
+                        Duration.between(Instant.now(), claims.getExpiration().toInstant())))
+                .build();
         this.accessTtlSeconds = ttlMinutes * 60;
         this.refreshTtlSeconds = 30L * 24 * 3600; // 30 days by default
     }
@@ -41,13 +65,15 @@ public class JwtService {
     /**
      * Generates a short-lived access token for API use.
      *
+     * @param userId       id of the authenticated user
      * @param subjectEmail email of the authenticated user
      * @return signed JWT access token
      */
-    public String generateAccessToken(String subjectEmail) {
+    public String generateAccessToken(UUID userId, String subjectEmail) {
         Instant now = Instant.now();
         return Jwts.builder()
                 .subject(subjectEmail)
+                .claim(USER_ID_CLAIM, userId.toString())
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusSeconds(accessTtlSeconds)))
                 .signWith(key)
@@ -57,13 +83,15 @@ public class JwtService {
     /**
      * Generates a long-lived refresh token for session renewal.
      *
+     * @param userId       id of the authenticated user
      * @param subjectEmail email of the authenticated user
      * @return signed JWT refresh token
      */
-    public String generateRefreshToken(String subjectEmail) {
+    public String generateRefreshToken(UUID userId, String subjectEmail) {
         Instant now = Instant.now();
         return Jwts.builder()
                 .subject(subjectEmail)
+                .claim(USER_ID_CLAIM, userId.toString())
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusSeconds(refreshTtlSeconds)))
                 .signWith(key)
@@ -78,12 +106,28 @@ public class JwtService {
      * @throws io.jsonwebtoken.JwtException if invalid or expired
      */
     public String validateAndGetSubject(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return validateAndGetClaims(token).getSubject();
+    }
+
+    /**
+     * Validates a JWT and returns all of its claims.
+     *
+     * Clients resend the same token on every request until it expires, so verified claims
+     * are cached under the token's SHA-256 digest and evicted at the token's {@code exp}.
+     * A hit skips the HMAC check and JSON parse; only an exact byte-for-byte match can hit.
+     *
+     * @param token JWT to validate
+     * @return verified claims (subject email, {@value #USER_ID_CLAIM} for tokens that carry it)
+     * @throws io.jsonwebtoken.JwtException if invalid or expired
+     */
+    public Claims validateAndGetClaims(String token) {
+        ByteBuffer digest = digest(token);
+        Claims claims = verified.getIfPresent(digest);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() != null) verified.put(digest, claims);
+        }
+        return claims;
     }
 
     /**
@@ -94,13 +138,22 @@ public class JwtService {
      */
     public boolean isValid(String token) {
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+            validateAndGetClaims(token);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
 
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * Returns the access token time-to-live in seconds.
      */
@@ -0,0 +1,145 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.repository.SnippetBlobRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.carterlumm.codevaultservice.repository.StoredBody;
+import com.github.luben.zstd.Zstd;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * SnippetBodyStore
+ *
+ * Decides where a snippet's body lives. Bodies up to {@code app.body.inline-limit}
+ * characters stay in {@code snippet.body}. Longer ones are Zstd-compressed into
+ * {@code snippet_blob}, and the inline column keeps only the first
+ * {@code app.body.preview-length} characters, so list pages, search hits and the FTS
+ * index stop paying for pasted log dumps and bundles. Length and SHA-256 of the full
+ * body are recorded inline either way.
+ *
+ * Blobs are content-addressed by that SHA-256 and reference counted, so the same
+ * library file saved by many users, or re-saved by one, is compressed and stored once.
+ * Re-saving an unchanged body writes neither the blob nor the inline columns.
+ *
+ * Full bodies are read back only where a client needs the whole snippet: single GET,
+ * export and delta sync.
+ */
+@Component
+public class SnippetBodyStore {
+
+    static final String CODEC = "zstd";
+
+    private final SnippetBlobRepository blobRepo;
+    private final int inlineLimit;
+    private final int previewLength;
+    private final int level;
+
+    public SnippetBodyStore(SnippetBlobRepository blobRepo,
+                            @Value("${app.body.inline-limit:16384}") int inlineLimit,
+                            @Value("${app.body.preview-length:2048}") int previewLength,
+                            @Value("${app.body.zstd-level:3}") int level) {
+        this.blobRepo = blobRepo;
+        this.inlineLimit = inlineLimit;
+        this.previewLength = Math.min(previewLength, inlineLimit);
+        this.level = level;
+    }
+
+    /** A body to be stored out of line, compressed only if no blob with its hash exists yet. */
+    public record Payload(String hash, byte[] utf8) {}
+
+    /**
+     * Sets the inline body and body metadata on {@code s} for a new full {@code body}.
+     * Must be followed by {@link #store} once the snippet has an id.
+     *
+     * @return the body to store out of line, or null when it fits inline
+     */
+    public Payload apply(Snippet s, String body) {
+        byte[] utf8 = body.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(utf8);
+        int length = body.codePointCount(0, body.length());
+        boolean external = length > inlineLimit;
+        s.setFullBody(body);
+        // Same content: leave the columns clean so Hibernate issues no UPDATE for them
+        if (hash.equals(s.getBodyHash()) && external == s.isBodyExternal()) return external ? new Payload(hash, utf8) : null;
+
+        s.setBodyLength(length);
+        s.setBodyHash(hash);
+        s.setBodyExternal(external);
+        if (!external) {
+            s.setBody(body);
+            return null;
+        }
+        s.setBody(body.substring(0, body.offsetByCodePoints(0, previewLength)));
+        return new Payload(hash, utf8);
+    }
+
+    /**
+     * Takes a reference on the blob for {@code payload} and drops the one on the snippet's
+     * previous body, in the snippet's transaction. Nothing is written when both are the same.
+     *
+     * @param payload      result of {@link #apply}
+     * @param previousHash hash of the blob the snippet pointed at before, or null if it was inline
+     */
+    public void store(Payload payload, String previousHash) {
+        String hash = payload != null ? payload.hash() : null;
+        if (Objects.equals(hash, previousHash)) return;
+        if (payload != null) retain(payload);
+        if (previousHash != null) release(previousHash);
+    }
+
+    /** Hash of the blob {@code s} currently references, or null; read it before {@link #apply}. */
+    public static String blobHash(Snippet s) {
+        return s.isBodyExternal() ? s.getBodyHash() : null;
+    }
+
+    /** Drops the deleted snippet's reference on its blob. */
+    public void release(Snippet s) {
+        String hash = blobHash(s);
+        if (hash != null) release(hash);
+    }
+
+    private void retain(Payload payload) {
+        // A concurrent release can delete the row between the two statements; go round again
+        while (blobRepo.retain(payload.hash()) == 0
+                && blobRepo.insertFirst(payload.hash(), CODEC, payload.utf8().length,
+                        Zstd.compress(payload.utf8(), level)) == 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void release(String hash) {
+        blobRepo.release(hash);
+        blobRepo.deleteIfUnreferenced(hash);
+    }
+
+    /** Full bodies of those of the owner's rows whose inline body is only a preview, keyed by id, in one query. */
+    public Map<UUID, String> loadFull(UUID userId, List<SnippetRow> rows) {
+        List<UUID> externalIds = rows.stream().filter(SnippetRow::bodyExternal).map(SnippetRow::id).toList();
+        if (externalIds.isEmpty()) return Map.of();
+        Map<UUID, String> bodies = new HashMap<>();
+        for (StoredBody b : blobRepo.findBySnippetIds(userId, externalIds)) bodies.put(b.snippetId(), decode(b));
+        return bodies;
+    }
+
+    static String decode(StoredBody b) {
+        if (!CODEC.equals(b.codec())) {
+            throw new IllegalStateException("Unknown body codec " + b.codec() + " for blob " + b.hash());
+        }
+        return new String(Zstd.decompress(b.data(), b.rawSize()), StandardCharsets.UTF_8);
+    }
+
+    /** Lower-case hex SHA-256 of the UTF-8 encoding, as stored in {@code snippet.body_hash}. */
+    public static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
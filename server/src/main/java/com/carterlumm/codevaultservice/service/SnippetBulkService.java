@@ -0,0 +1,17 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.dto.BulkImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.UUID;
+
+public interface SnippetBulkService {
+
+    /** Imports one {@code CreateSnippetRequest} JSON object per line for the given user. */
+    BulkImportResult importNdjson(UUID userId, InputStream ndjson) throws IOException;
+
+    /** Writes every snippet of the given user as one {@code SnippetDto} JSON object per line. */
+    void exportNdjson(UUID userId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,184 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.dto.BulkImportResult;
+import com.carterlumm.codevaultservice.dto.CreateSnippetRequest;
+import com.carterlumm.codevaultservice.event.SnippetChangedEvent;
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.model.Tag;
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.carterlumm.codevaultservice.repository.SnippetSpecifications;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SnippetBulkServiceImpl
+ *
+ * NDJSON import and export of a whole vault.
+ *
+ * Import parses the request body incrementally and commits every {@link #BATCH_SIZE}
+ * snippets in their own transaction: tags are resolved once per batch, and inserts go out as JDBC batches ({@code hibernate.jdbc.batch_size}).
+ * The persistence context is cleared after each batch so memory stays flat.
+ *
+ * Export streams projected rows through a server-side cursor and attaches tags and
+ * out-of-line bodies one chunk at a time, so the vault is never materialised on the heap.
+ */
+@Service
+public class SnippetBulkServiceImpl implements SnippetBulkService {
+
+    static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    private final SnippetRepository snippetRepo;
+    private final TagRegistry tagRegistry;
+    private final ObjectMapper mapper;
+    private final SnippetJsonWriter snippetWriter;
+    private final Validator validator;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+    private final SnippetBodyStore bodyStore;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public SnippetBulkServiceImpl(SnippetRepository snippetRepo, TagRegistry tagRegistry, ObjectMapper mapper, Validator validator,
+                                  ApplicationEventPublisher events, PlatformTransactionManager txManager,
+                                  SnippetBodyStore bodyStore, SnippetJsonWriter snippetWriter) {
+        this.snippetRepo = snippetRepo;
+        this.tagRegistry = tagRegistry;
+        this.mapper = mapper;
+        this.snippetWriter = snippetWriter;
+        this.validator = validator;
+        this.events = events;
+        this.tx = new TransactionTemplate(txManager);
+        this.bodyStore = bodyStore;
+    }
+
+    @Override
+    public BulkImportResult importNdjson(UUID userId, InputStream ndjson) throws IOException {
+        int imported = 0;
+        int rejected = 0;
+        List<String> errors = new ArrayList<>();
+        List<CreateSnippetRequest> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (MappingIterator<CreateSnippetRequest> lines =
+                     mapper.readerFor(CreateSnippetRequest.class).readValues(ndjson)) {
+            while (lines.hasNextValue()) {
+                int line = lines.getCurrentLocation().getLineNr();
+                CreateSnippetRequest req = lines.nextValue();
+                Set<ConstraintViolation<CreateSnippetRequest>> violations = validator.validate(req);
+                if (!violations.isEmpty()) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) errors.add("line " + line + ": " + describe(violations));
+                    continue;
+                }
+                batch.add(req);
+                if (batch.size() == BATCH_SIZE) {
+                    imported += saveBatch(userId, batch);
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Malformed NDJSON after " + imported + " imported snippets: " + e.getOriginalMessage());
+        }
+        if (!batch.isEmpty()) imported += saveBatch(userId, batch);
+
+        return new BulkImportResult(imported, rejected, errors);
+    }
+
+    private int saveBatch(UUID userId, List<CreateSnippetRequest> batch) {
+        return tx.execute(status -> {
+            List<String> allTags = batch.stream()
+                    .filter(r -> r.tags() != null)
+                    .flatMap(r -> r.tags().stream())
+                    .toList();
+            Map<String, Tag> tags = tagRegistry.resolveByName(allTags);
+
+            List<Snippet> snippets = batch.stream()
+                    .map(req -> Snippet.builder()
+                            .userId(userId)
+                            .title(req.title())
+                            .faviconUrl(req.faviconUrl())
+                            .language(req.language())
+                            .meta(req.meta())
+                            .tags(TagRegistry.normalize(req.tags()).keySet().stream()
+                                    .map(tags::get)
+                                    .collect(Collectors.toSet()))
+                            .build())
+                    .toList();
+
+            List<SnippetBodyStore.Payload> payloads = new ArrayList<>(snippets.size());
+            for (int i = 0; i < snippets.size(); i++) {
+                payloads.add(bodyStore.apply(snippets.get(i), batch.get(i).body()));
+            }
+            snippetRepo.saveAll(snippets);
+            payloads.forEach(p -> bodyStore.store(p, null));
+            for (int i = 0; i < snippets.size(); i++) {
+                events.publishEvent(SnippetChangedEvent.created(snippets.get(i), batch.get(i).body()));
+            }
+            em.flush();
+            em.clear();
+            return snippets.size();
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportNdjson(UUID userId, OutputStream out) throws IOException {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)
+                .setRootValueSeparator(null);
+             Stream<SnippetRow> rows = snippetRepo.streamRows(
+                     SnippetSpecifications.ownedBy(userId), Sort.by("createdAt", "id"), BATCH_SIZE)) {
+            List<SnippetRow> chunk = new ArrayList<>(BATCH_SIZE);
+            char[] buffer = snippetWriter.newBuffer();
+            Iterator<SnippetRow> it = rows.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() == BATCH_SIZE || !it.hasNext()) {
+                    writeChunk(gen, userId, chunk, buffer);
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    private void writeChunk(JsonGenerator gen, UUID userId, List<SnippetRow> chunk, char[] buffer) throws IOException {
+        Map<UUID, List<String>> tags = snippetRepo.findTagNames(userId, chunk.stream().map(SnippetRow::id).toList());
+        Map<UUID, String> fullBodies = bodyStore.loadFull(userId, chunk);
+        for (SnippetRow row : chunk) {
+            String full = fullBodies.get(row.id());
+            snippetWriter.writeSnippet(gen, row, tags.getOrDefault(row.id(), List.of()), full != null ? full : row.body(), buffer);
+            gen.writeRaw('\n');
+        }
+        gen.flush();
+    }
+
+    private static String describe(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,248 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SnippetJsonWriter
+ *
+ * Writes snippet rows as {@link SnippetDto} JSON straight onto a {@link JsonGenerator}, for
+ * responses that carry many snippets (list and search pages, the NDJSON export). Nothing is
+ * built per row: no {@code SnippetDto}, no copy of its tag list, field names are pre-encoded
+ * once, and ids and timestamps are formatted into one buffer per response instead of into a
+ * new String each. The output is the same JSON Jackson produces for {@code SnippetDto} and
+ * {@code CursorPage<SnippetDto>}; {@code meta} values other than JSON's own types (maps,
+ * lists, strings, numbers, booleans) still go through the application's {@link ObjectMapper}.
+ */
+@Component
+public class SnippetJsonWriter {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString BODY = new SerializedString("body");
+    private static final SerializableString BODY_LENGTH = new SerializedString("bodyLength");
+    private static final SerializableString FAVICON_URL = new SerializedString("faviconUrl");
+    private static final SerializableString LANGUAGE = new SerializedString("language");
+    private static final SerializableString META = new SerializedString("meta");
+    private static final SerializableString TAGS = new SerializedString("tags");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializableString LAST = new SerializedString("last");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * How Boot's mapper writes {@link OffsetDateTime} (dates not as timestamps): ISO-8601 in the
+     * value's own offset. {@link #formatTimestamp} produces the same text for four-digit years
+     * and offsets in whole minutes, and falls back to this for anything else.
+     */
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    /**
+     * Room for the longer of a UUID (36 chars) and the longest text {@link #formatTimestamp}
+     * writes, {@code 2026-03-01T12:00:00.123456789+02:00} (35).
+     */
+    private static final int BUFFER_CHARS = 36;
+
+    private final ObjectWriter valueWriter;
+
+    public SnippetJsonWriter(ObjectMapper mapper) {
+        // Flushing is left to the caller; by default ObjectWriter would flush after every value
+        this.valueWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /** A buffer for {@link #writeSnippet}; one is enough for every row of a response. */
+    public char[] newBuffer() {
+        return new char[BUFFER_CHARS];
+    }
+
+    /** Writes {@code page} in the shape of {@code CursorPage<SnippetDto>}. */
+    public void writePage(JsonGenerator gen, SnippetRowPage page) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+        char[] buffer = newBuffer();
+        for (SnippetRow row : page.rows()) {
+            writeSnippet(gen, row, page.tags().getOrDefault(row.id(), List.of()), row.body(), buffer);
+        }
+        gen.writeEndArray();
+        gen.writeFieldName(NEXT_CURSOR);
+        if (page.nextCursor() != null) gen.writeString(page.nextCursor());
+        else gen.writeNull();
+        gen.writeFieldName(LAST);
+        gen.writeBoolean(page.last());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes one snippet as a {@link SnippetDto} object.
+     *
+     * @param body   the body to send: the row's inline body, or the full text when it is stored out of line
+     * @param buffer scratch space from {@link #newBuffer()}
+     */
+    public void writeSnippet(JsonGenerator gen, SnippetRow row, List<String> tags, String body, char[] buffer)
+            throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ID);
+        gen.writeString(buffer, 0, formatUuid(row.id(), buffer));
+        gen.writeFieldName(TITLE);
+        gen.writeString(row.title());
+        gen.writeFieldName(BODY);
+        gen.writeString(body);
+        gen.writeFieldName(BODY_LENGTH);
+        gen.writeNumber(row.bodyLength());
+        gen.writeFieldName(FAVICON_URL);
+        gen.writeString(row.faviconUrl());
+        gen.writeFieldName(LANGUAGE);
+        gen.writeString(row.language());
+        gen.writeFieldName(META);
+        writeValue(gen, row.meta());
+        gen.writeFieldName(TAGS);
+        gen.writeStartArray();
+        for (String tag : tags) gen.writeString(tag);
+        gen.writeEndArray();
+        writeTimestamp(gen, CREATED_AT, row.createdAt(), buffer);
+        writeTimestamp(gen, UPDATED_AT, row.updatedAt(), buffer);
+        gen.writeEndObject();
+    }
+
+    /** Writes a meta value the way Jackson's standard serializers would, without a serializer lookup per value. */
+    private void writeValue(JsonGenerator gen, Object value) throws IOException {
+        switch (value) {
+            case null -> gen.writeNull();
+            case String s -> gen.writeString(s);
+            case Boolean b -> gen.writeBoolean(b);
+            case Integer i -> gen.writeNumber(i);
+            case Long l -> gen.writeNumber(l);
+            case Double d -> gen.writeNumber(d);
+            case BigDecimal d -> gen.writeNumber(d);
+            case BigInteger i -> gen.writeNumber(i);
+            case Map<?, ?> map when allStringKeys(map) -> {
+                gen.writeStartObject();
+                for (Map.Entry<?, ?> e : map.entrySet()) {
+                    gen.writeFieldName((String) e.getKey());
+                    writeValue(gen, e.getValue());
+                }
+                gen.writeEndObject();
+            }
+            case List<?> list -> {
+                gen.writeStartArray();
+                for (Object item : list) writeValue(gen, item);
+                gen.writeEndArray();
+            }
+            default -> valueWriter.writeValue(gen, value);
+        }
+    }
+
+    private static boolean allStringKeys(Map<?, ?> map) {
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) return false;
+        }
+        return true;
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, SerializableString name, OffsetDateTime value, char[] buffer)
+            throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        int length = formatTimestamp(value, buffer);
+        if (length > 0) gen.writeString(buffer, 0, length);
+        else gen.writeString(TIMESTAMP.format(value));
+    }
+
+    /** Writes {@code id} in its 36-character canonical form, as {@link UUID#toString()} does. */
+    static int formatUuid(UUID id, char[] buffer) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        hex(buffer, 0, msb >>> 32, 8);
+        buffer[8] = '-';
+        hex(buffer, 9, msb >>> 16, 4);
+        buffer[13] = '-';
+        hex(buffer, 14, msb, 4);
+        buffer[18] = '-';
+        hex(buffer, 19, lsb >>> 48, 4);
+        buffer[23] = '-';
+        hex(buffer, 24, lsb, 12);
+        return 36;
+    }
+
+    /**
+     * Writes {@code value} as {@link #TIMESTAMP} would and returns its length, or returns 0 for
+     * values outside years 0000-9999 or with an offset that has seconds.
+     */
+    static int formatTimestamp(OffsetDateTime value, char[] buffer) {
+        int year = value.getYear();
+        int offset = value.getOffset().getTotalSeconds();
+        if (year < 0 || year > 9999 || offset % 60 != 0) return 0;
+        digits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        digits(buffer, 5, value.getMonthValue(), 2);
+        buffer[7] = '-';
+        digits(buffer, 8, value.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        digits(buffer, 11, value.getHour(), 2);
+        buffer[13] = ':';
+        digits(buffer, 14, value.getMinute(), 2);
+        buffer[16] = ':';
+        digits(buffer, 17, value.getSecond(), 2);
+        int pos = 19;
+        int nano = value.getNano();
+        if (nano != 0) {
+            // As many fraction digits as it takes, without trailing zeros
+            int width = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                width--;
+            }
+            buffer[pos++] = '.';
+            digits(buffer, pos, nano, width);
+            pos += width;
+        }
+        if (offset == 0) {
+            buffer[pos++] = 'Z';
+            return pos;
+        }
+        buffer[pos++] = offset < 0 ? '-' : '+';
+        int minutes = Math.abs(offset) / 60;
+        digits(buffer, pos, minutes / 60, 2);
+        buffer[pos + 2] = ':';
+        digits(buffer, pos + 3, minutes % 60, 2);
+        return pos + 5;
+    }
+
+    private static void digits(char[] buffer, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void hex(char[] buffer, int pos, long value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
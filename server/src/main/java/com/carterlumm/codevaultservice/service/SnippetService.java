@@ -1,22 +1,39 @@
 package com.carterlumm.codevaultservice.service;
 
+import com.carterlumm.codevaultservice.cache.CachedSnippet;
 import com.carterlumm.codevaultservice.dto.CreateSnippetRequest;
+import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.dto.SnippetFacets;
+import com.carterlumm.codevaultservice.dto.SnippetFilter;
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
 import com.carterlumm.codevaultservice.dto.UpdateSnippetRequest;
 import com.carterlumm.codevaultservice.model.Snippet;
-import org.springframework.data.domain.Page;
+import com.carterlumm.codevaultservice.repository.VaultStamp;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface SnippetService {
 
-    Snippet create(CreateSnippetRequest req, String email);
-    Optional<Snippet> get(UUID id);
-    Optional<Snippet> update(UUID id, UpdateSnippetRequest req);
-    void delete(UUID id);
-    Page<Snippet> search(String q, int page, int size);
+    Snippet create(CreateSnippetRequest req, UUID userId);
+    /** The snippet serialized as {@link SnippetDto} JSON, served from the snippet cache when possible. */
+    Optional<CachedSnippet> getCached(UUID id);
+    /**
+     * Only the owner's snippets can be changed; anyone else's id is treated as missing.
+     *
+     * @param expectedVersion version the client last saw (If-Match), or null for an unconditional update
+     */
+    Optional<Snippet> update(UUID id, UUID userId, UpdateSnippetRequest req, Long expectedVersion);
+    void delete(UUID id, UUID userId, Long expectedVersion);
+    /** Oldest of the user's snippets whose full body has this SHA-256, for the extension's "already saved" check. */
+    Optional<UUID> findByBodyHash(UUID userId, String bodyHash);
+    VaultStamp stamp(UUID userId);
+    SnippetRowPage search(UUID userId, String q, String after, int limit, boolean summary);
 
-    Page<Snippet> findByUserEmail(String email, int page, int size, String sortBy, String direction);
+    SnippetRowPage findByUserId(UUID userId, SnippetFilter filter, String after, int limit, String sortBy,
+                                String direction, boolean summary);
+
+    SnippetFacets facets(UUID userId);
 
 
 }
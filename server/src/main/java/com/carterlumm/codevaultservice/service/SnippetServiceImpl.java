@@ -1,117 +1,307 @@
 package com.carterlumm.codevaultservice.service;
 
+import com.carterlumm.codevaultservice.cache.CachedSnippet;
+import com.carterlumm.codevaultservice.cache.SnippetCache;
 import com.carterlumm.codevaultservice.dto.CreateSnippetRequest;
+import com.carterlumm.codevaultservice.dto.FacetCount;
+import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.dto.SnippetFacets;
+import com.carterlumm.codevaultservice.dto.SnippetFilter;
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
 import com.carterlumm.codevaultservice.dto.UpdateSnippetRequest;
+import com.carterlumm.codevaultservice.event.SnippetChangedEvent;
 import com.carterlumm.codevaultservice.model.Snippet;
 import com.carterlumm.codevaultservice.model.Tag;
-import com.carterlumm.codevaultservice.model.User;
 import com.carterlumm.codevaultservice.repository.SnippetRepository;
-import com.carterlumm.codevaultservice.repository.TagRepository;
-import com.carterlumm.codevaultservice.repository.UserRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.carterlumm.codevaultservice.repository.SnippetSpecifications;
+import com.carterlumm.codevaultservice.repository.SnippetTombstoneRepository;
+import com.carterlumm.codevaultservice.repository.VaultStamp;
+import com.carterlumm.codevaultservice.search.SearchHit;
+import com.carterlumm.codevaultservice.search.SnippetSearchEngine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "snippet.service", histogram = true)
 public class SnippetServiceImpl implements SnippetService {
 
+    /** Deepest result reachable through search paging; keeps every search a bounded top-N query. */
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int MAX_TAG_FACETS = 200;
+
+    private static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "updatedAt");
+
     private final SnippetRepository snippetRepo;
 
-    private final TagRepository tagRepo;
+    private final TagRegistry tagRegistry;
+
+    private final SnippetSearchEngine searchEngine;
+
+    private final ApplicationEventPublisher events;
 
-    private final UserRepository userRepository;
+    private final SnippetCache snippetCache;
 
+    private final ObjectMapper mapper;
 
-    public SnippetServiceImpl(SnippetRepository snippetRepo, TagRepository tagRepo, UserRepository userRepository) {
-        this.snippetRepo = snippetRepo; this.tagRepo = tagRepo; this.userRepository = userRepository;
+    private final SnippetTombstoneRepository tombstoneRepo;
+
+    private final SnippetBodyStore bodyStore;
+
+
+    public SnippetServiceImpl(SnippetRepository snippetRepo, TagRegistry tagRegistry,
+                              SnippetSearchEngine searchEngine, ApplicationEventPublisher events,
+                              SnippetCache snippetCache, ObjectMapper mapper,
+                              SnippetTombstoneRepository tombstoneRepo, SnippetBodyStore bodyStore) {
+        this.snippetRepo = snippetRepo; this.tagRegistry = tagRegistry;
+        this.searchEngine = searchEngine; this.events = events;
+        this.snippetCache = snippetCache; this.mapper = mapper;
+        this.tombstoneRepo = tombstoneRepo; this.bodyStore = bodyStore;
     }
 
     @Transactional
     @Override
-    public Snippet create(CreateSnippetRequest req, String email) {
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
-
-        var tags = resolveTags(req.tags());
+    public Snippet create(CreateSnippetRequest req, UUID userId) {
+        var tags = tagRegistry.resolve(req.tags());
 
         var snippet = Snippet.builder()
-                .userId(owner.getId())   // UUID from DB, not passed from client
+                .userId(userId)   // from the verified token, not passed from client
                 .title(req.title())
-                .body(req.body())
                 .faviconUrl(req.faviconUrl())
                 .language(req.language())
                 .meta(req.meta())
                 .tags(tags)
                 .build();
 
-        return snippetRepo.save(snippet);
+        var payload = bodyStore.apply(snippet, req.body());
+        Snippet saved = snippetRepo.save(snippet);
+        bodyStore.store(payload, null);
+        events.publishEvent(SnippetChangedEvent.created(saved, req.body()));
+        return saved;
     }
 
 
     @Override
-    @Transactional(readOnly = true)
-    public Optional<Snippet> get(UUID id) {
-        return snippetRepo.findById(id);
+    public Optional<CachedSnippet> getCached(UUID id) {
+        return snippetCache.get(id, this::load);
+    }
+
+    private CachedSnippet load(UUID id) {
+        // Only the id is known here; once the owner is found the rest stays in their partition
+        UUID owner = snippetRepo.findUserIdById(id).orElse(null);
+        if (owner == null) return null;
+        List<SnippetRow> rows = snippetRepo.findRowsByIds(owner, List.of(id), false);
+        if (rows.isEmpty()) return null;
+        SnippetDto dto = toDtos(owner, rows).get(0);
+        String full = bodyStore.loadFull(owner, rows).get(id);
+        if (full != null) dto = dto.withBody(full);
+        try {
+            return new CachedSnippet(rows.get(0).version(), mapper.writeValueAsBytes(dto));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize snippet " + id, e);
+        }
+    }
+
+    /**
+     * Drops the cached copy once an update or delete has committed. Evicting only after
+     * commit means a concurrent reader cannot re-cache the pre-change row.
+     */
+    @TransactionalEventListener
+    public void onSnippetChanged(SnippetChangedEvent event) {
+        if (event.type() != SnippetChangedEvent.Type.CREATED) snippetCache.invalidate(event.snippetId());
     }
 
     @Override
     @Transactional
-    public Optional<Snippet> update(UUID id, UpdateSnippetRequest req) {
-        return snippetRepo.findById(id).map(s -> {
+    public Optional<Snippet> update(UUID id, UUID userId, UpdateSnippetRequest req, Long expectedVersion) {
+        return snippetRepo.findByIdAndUserId(id, userId).map(s -> {
+            checkVersion(s, expectedVersion);
             s.setTitle(req.title());
-            s.setBody(req.body());
+            String previousHash = SnippetBodyStore.blobHash(s);
+            bodyStore.store(bodyStore.apply(s, req.body()), previousHash);
             s.setLanguage(req.language());
             s.setMeta(req.meta());
-            s.setTags(resolveTags(req.tags()));
+            s.setTags(tagRegistry.resolve(req.tags()));
+            events.publishEvent(SnippetChangedEvent.updated(s, req.body()));
             return s;
         });
     }
 
     @Override
     @Transactional
-    public void delete(UUID id) {
-        snippetRepo.deleteById(id);
+    public void delete(UUID id, UUID userId, Long expectedVersion) {
+        snippetRepo.findByIdAndUserId(id, userId).ifPresent(s -> {
+            checkVersion(s, expectedVersion);
+            snippetRepo.delete(s);
+            bodyStore.release(s);
+            // Lets delta-sync clients drop their copy; written in the same transaction as the delete
+            tombstoneRepo.insert(s.getId(), s.getUserId(), OffsetDateTime.now());
+            events.publishEvent(SnippetChangedEvent.deleted(s));
+        });
+    }
+
+    /**
+     * Rejects a conditional write made against a stale copy. A concurrent writer that slips
+     * in after this check is still caught by the versioned UPDATE/DELETE at flush.
+     */
+    private static void checkVersion(Snippet s, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(s.getVersion()))
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Snippet has been modified");
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Snippet> search(String q, int page, int size) {
-        return snippetRepo.search(q, PageRequest.of(page, size));
+    public Optional<UUID> findByBodyHash(UUID userId, String bodyHash) {
+        return snippetRepo.findIdsByBodyHash(userId, bodyHash, Limit.of(1)).stream().findFirst();
     }
 
-    private Set<Tag> resolveTags(List<String> names) {
-        if (names == null || names.isEmpty()) return new HashSet<>();
-        return names.stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(n -> tagRepo.findByNameIgnoreCase(n).orElseGet(() -> tagRepo.save(Tag.builder().name(n).build())))
-                .collect(Collectors.toSet());
+    @Override
+    @Transactional(readOnly = true)
+    public VaultStamp stamp(UUID userId) {
+        return snippetRepo.stampByUserId(userId);
     }
 
     @Override
-    public Page<Snippet> findByUserEmail(String email, int page, int size, String sortBy, String direction) {
-        Sort sort = Sort.by(
-                direction.equalsIgnoreCase("asc") ?
-                        Sort.Direction.ASC :
-                        Sort.Direction.DESC,
-                sortBy
-        );
-
-        Pageable pageable = PageRequest.of(page, size, sort);
-        // Get userId from email using UserService
-        UUID userId = userRepository.findByEmail(email)
-                .map(User::getId)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        Page<Snippet> snippets = snippetRepo.findByUserId(userId, pageable);
-        return snippets;
+    @Transactional(readOnly = true)
+    public SnippetRowPage search(UUID userId, String q, String after, int limit, boolean summary) {
+        int size = clampLimit(limit);
+        Cursor cursor = after != null ? Cursor.decode(after) : null;
+        int seen = cursor != null ? cursor.seen() : 0;
+        // Cursors are only issued while there are more hits to show, i.e. below the cap
+        if (seen >= MAX_SEARCH_RESULTS) throw Cursor.invalid();
+
+        // Top-N: rank just deep enough to cover this slice plus one hit to detect the end
+        List<SearchHit> hits = searchEngine.search(userId, q, Math.min(seen + size, MAX_SEARCH_RESULTS) + 1);
+        int from = cursor != null ? resumeIndex(hits, cursor) : 0;
+        int to = Math.min(from + size, hits.size());
+        List<SearchHit> slice = hits.subList(Math.min(from, to), to);
+        boolean last = to >= hits.size() || seen + slice.size() >= MAX_SEARCH_RESULTS;
+
+        List<SnippetRow> ranked = hydrate(userId, slice.stream().map(SearchHit::id).toList(), summary);
+        String next = last || slice.isEmpty() ? null : Cursor.ofRank(
+                slice.get(slice.size() - 1).rank(), seen + slice.size(), slice.get(slice.size() - 1).id()).encode();
+        return page(userId, ranked, next);
+    }
+
+    /** Index of the first hit after the cursor row, in (rank desc, id) order. */
+    private static int resumeIndex(List<SearchHit> hits, Cursor cursor) {
+        for (int i = 0; i < hits.size(); i++) {
+            if (hits.get(i).id().equals(cursor.id())) return i + 1;
+        }
+        // The cursor row was deleted or re-ranked since: resume below its old rank
+        double rank = cursor.rank();
+        for (int i = 0; i < hits.size(); i++) {
+            if (hits.get(i).rank() < rank) return i;
+        }
+        return hits.size();
+    }
+
+    /** Loads snippets by id, preserving the given order and skipping ids deleted since they were indexed. */
+    private List<SnippetRow> hydrate(UUID userId, List<UUID> ids, boolean summary) {
+        Map<UUID, SnippetRow> byId = snippetRepo.findRowsByIds(userId, ids, summary).stream()
+                .collect(Collectors.toMap(SnippetRow::id, r -> r));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Pairs a slice of rows with their tags, fetched in one batched query instead of one per snippet. */
+    private SnippetRowPage page(UUID userId, List<SnippetRow> rows, String nextCursor) {
+        Map<UUID, List<String>> tags = rows.isEmpty()
+                ? Map.of()
+                : snippetRepo.findTagNames(userId, rows.stream().map(SnippetRow::id).toList());
+        return new SnippetRowPage(rows, tags, nextCursor, nextCursor == null);
+    }
+
+    /** Attaches tags to a page of rows with one batched query instead of one per snippet. */
+    private List<SnippetDto> toDtos(UUID userId, List<SnippetRow> rows) {
+        Map<UUID, List<String>> tags = snippetRepo.findTagNames(userId, rows.stream().map(SnippetRow::id).toList());
+        return rows.stream()
+                .map(r -> SnippetDto.from(r, tags.getOrDefault(r.id(), List.of())))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SnippetRowPage findByUserId(UUID userId, SnippetFilter filter, String after, int limit,
+                                       String sortBy, String direction, boolean summary) {
+        // Only fields backed by a (user_id, field, id) index can be paged by keyset
+        if (!SORTABLE_FIELDS.contains(sortBy))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort field: " + sortBy);
+
+        Sort.Direction dir = direction.equalsIgnoreCase("asc") ?
+                Sort.Direction.ASC :
+                Sort.Direction.DESC;
+        int size = clampLimit(limit);
+
+        Specification<Snippet> spec = SnippetSpecifications.ownedBy(userId);
+        if (!filter.isEmpty()) {
+            Specification<Snippet> filtered = filtered(spec, filter);
+            if (filtered == null) return SnippetRowPage.empty();
+            spec = filtered;
+        }
+        if (after != null) {
+            Cursor cursor = Cursor.decode(after);
+            spec = spec.and(SnippetSpecifications.after(sortBy, dir, cursor.timestamp(), cursor.id()));
+        }
+
+        List<SnippetRow> rows = snippetRepo.findRows(spec, Sort.by(dir, sortBy, "id"), size + 1, summary);
+
+        if (rows.size() <= size) return page(userId, rows, null);
+        List<SnippetRow> content = rows.subList(0, size);
+        SnippetRow tail = content.get(size - 1);
+        OffsetDateTime key = sortBy.equals("createdAt") ? tail.createdAt() : tail.updatedAt();
+        return page(userId, content, Cursor.of(key, tail.id()).encode());
+    }
+
+    /** {@code spec} narrowed by {@code filter}, or null when a requested tag does not exist so nothing can match. */
+    private Specification<Snippet> filtered(Specification<Snippet> spec, SnippetFilter filter) {
+        if (!filter.tags().isEmpty()) {
+            Map<String, Tag> tags = tagRegistry.lookup(filter.tags());
+            if (tags.size() < TagRegistry.normalize(filter.tags()).size()) return null;
+            for (Tag t : tags.values()) spec = spec.and(SnippetSpecifications.hasTag(t.getId()));
+        }
+        if (!filter.languages().isEmpty()) spec = spec.and(SnippetSpecifications.languageIn(filter.languages()));
+        for (var e : filter.meta().entrySet()) {
+            spec = spec.and(SnippetSpecifications.metaEquals(e.getKey(), e.getValue()));
+        }
+        return spec;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SnippetFacets facets(UUID userId) {
+        List<FacetCount> tags = new ArrayList<>();
+        List<FacetCount> languages = new ArrayList<>();
+        for (SnippetRepository.FacetRow row : snippetRepo.countFacets(userId)) {
+            if (row.getValue() == null) continue;
+            var count = new FacetCount(row.getValue(), row.getCount());
+            if (row.getFacet().equals("tag")) tags.add(count);
+            else languages.add(count);
+        }
+        Comparator<FacetCount> byCount = Comparator.comparingLong(FacetCount::count).reversed()
+                .thenComparing(FacetCount::value);
+        tags.sort(byCount);
+        languages.sort(byCount);
+        return new SnippetFacets(tags.subList(0, Math.min(tags.size(), MAX_TAG_FACETS)), languages);
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
 }
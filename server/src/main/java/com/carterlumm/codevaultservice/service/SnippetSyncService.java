@@ -0,0 +1,14 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.dto.SnippetChanges;
+
+import java.util.UUID;
+
+public interface SnippetSyncService {
+
+    /**
+     * Snippets changed and deleted since {@code since} (null for a full initial sync).
+     * Cost is proportional to the number of changes, not the size of the vault.
+     */
+    SnippetChanges changes(UUID userId, String since, int limit);
+}
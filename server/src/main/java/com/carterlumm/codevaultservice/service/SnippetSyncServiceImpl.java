@@ -0,0 +1,148 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.dto.SnippetChanges;
+import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.model.SnippetTombstone;
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.carterlumm.codevaultservice.repository.SnippetSpecifications;
+import com.carterlumm.codevaultservice.repository.SnippetTombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * SnippetSyncServiceImpl
+ *
+ * Delta sync over two keyset streams read through {@code (user_id, updated_at, id)} and
+ * {@code (user_id, deleted_at, snippet_id)}: live snippets by {@code updated_at} and
+ * tombstones by {@code deleted_at}. The sync token is a {@link Cursor} holding the
+ * position of the last change the client has seen in that merged order.
+ *
+ * Timestamps are assigned before commit, so a transaction can become visible with a
+ * timestamp slightly older than a change that committed first. Each batch therefore stops
+ * {@code app.sync.settle-time} in the past, so a returned token is never ahead of a
+ * change that has yet to commit.
+ */
+@Service
+public class SnippetSyncServiceImpl implements SnippetSyncService {
+
+    private static final int MAX_BATCH = 500;
+
+    /** Sorts after every real id, so a token at {@code (t, MAX_ID)} resumes strictly after {@code t}. */
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private static final Comparator<UUID> UUID_ORDER = (a, b) -> {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private final SnippetRepository snippetRepo;
+    private final SnippetTombstoneRepository tombstoneRepo;
+    private final Duration settleTime;
+    private final Duration retention;
+    private final SnippetBodyStore bodyStore;
+
+    public SnippetSyncServiceImpl(SnippetRepository snippetRepo, SnippetTombstoneRepository tombstoneRepo,
+                                  SnippetBodyStore bodyStore,
+                                  @Value("${app.sync.settle-time:5s}") Duration settleTime,
+                                  @Value("${app.sync.tombstone-retention:30d}") Duration retention) {
+        this.snippetRepo = snippetRepo;
+        this.tombstoneRepo = tombstoneRepo;
+        this.bodyStore = bodyStore;
+        this.settleTime = settleTime;
+        this.retention = retention;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SnippetChanges changes(UUID userId, String since, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_BATCH));
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime until = now.minus(settleTime);
+
+        OffsetDateTime fromTime = Instant.EPOCH.atOffset(ZoneOffset.UTC);
+        UUID fromId = new UUID(0L, 0L);
+        if (since != null) {
+            Cursor cursor = Cursor.decode(since);
+            fromTime = cursor.timestamp();
+            fromId = cursor.id();
+            // Deletions older than the retention window are gone; the client's mirror can't be patched
+            if (fromTime.isBefore(now.minus(retention)))
+                throw new ResponseStatusException(HttpStatus.GONE, "Sync token expired, run a full sync");
+        }
+        if (!fromTime.isBefore(until)) return new SnippetChanges(List.of(), List.of(), since, false);
+
+        List<SnippetRow> rows = snippetRepo.findRows(
+                SnippetSpecifications.ownedBy(userId)
+                        .and(SnippetSpecifications.after("updatedAt", Sort.Direction.ASC, fromTime, fromId))
+                        .and(SnippetSpecifications.notAfter("updatedAt", until)),
+                Sort.by("updatedAt", "id"), size + 1, false);
+        List<SnippetTombstone> tombstones =
+                tombstoneRepo.findChanges(userId, fromTime, fromId, until, Limit.of(size + 1));
+
+        // Merge the two ordered streams and keep the first `size` changes
+        List<SnippetRow> updated = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        int r = 0, t = 0;
+        OffsetDateTime lastTime = null;
+        UUID lastId = null;
+        while (updated.size() + deleted.size() < size && (r < rows.size() || t < tombstones.size())) {
+            boolean takeRow = t >= tombstones.size() || (r < rows.size() && compare(
+                    rows.get(r).updatedAt(), rows.get(r).id(),
+                    tombstones.get(t).getDeletedAt(), tombstones.get(t).getSnippetId()) <= 0);
+            if (takeRow) {
+                SnippetRow row = rows.get(r++);
+                updated.add(row);
+                lastTime = row.updatedAt();
+                lastId = row.id();
+            } else {
+                SnippetTombstone tomb = tombstones.get(t++);
+                deleted.add(tomb.getSnippetId());
+                lastTime = tomb.getDeletedAt();
+                lastId = tomb.getSnippetId();
+            }
+        }
+
+        boolean hasMore = r < rows.size() || t < tombstones.size();
+        Cursor next = hasMore ? Cursor.of(lastTime, lastId) : Cursor.of(until, MAX_ID);
+        return new SnippetChanges(toDtos(userId, updated), deleted, next.encode(), hasMore);
+    }
+
+    /** Tombstones past the retention window; clients that far behind get 410 and resync. */
+    @Scheduled(fixedDelayString = "${app.sync.purge-interval:1h}", initialDelayString = "${app.sync.purge-interval:1h}")
+    @Transactional
+    public void purgeTombstones() {
+        tombstoneRepo.deleteOlderThan(OffsetDateTime.now(ZoneOffset.UTC).minus(retention));
+    }
+
+    private static int compare(OffsetDateTime t1, UUID id1, OffsetDateTime t2, UUID id2) {
+        int c = t1.compareTo(t2);
+        return c != 0 ? c : UUID_ORDER.compare(id1, id2);
+    }
+
+    private List<SnippetDto> toDtos(UUID userId, List<SnippetRow> rows) {
+        if (rows.isEmpty()) return List.of();
+        Map<UUID, List<String>> tags = snippetRepo.findTagNames(userId, rows.stream().map(SnippetRow::id).toList());
+        // A mirror needs whole snippets, not list previews
+        Map<UUID, String> fullBodies = bodyStore.loadFull(userId, rows);
+        return rows.stream()
+                .map(row -> {
+                    SnippetDto dto = SnippetDto.from(row, tags.getOrDefault(row.id(), List.of()));
+                    String full = fullBodies.get(row.id());
+                    return full != null ? dto.withBody(full) : dto;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,119 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.model.Tag;
+import com.carterlumm.codevaultservice.repository.TagRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * TagRegistry
+ *
+ * Resolves tag names to tag rows for snippet writes. Known tags come from a bounded,
+ * case-insensitive name → id cache; the rest cost one batched {@code lower(name) IN (...)}
+ * lookup and, for names that do not exist yet, one {@code INSERT ... ON CONFLICT DO NOTHING}.
+ * Names another transaction inserted first are read back with one more lookup, so two
+ * concurrent saves introducing the same tag no longer collide on {@code uq_tag_name}.
+ *
+ * Returned tags may be detached copies; they carry the id, which is all the
+ * {@code snippet_tag} join rows need.
+ */
+@Component
+public class TagRegistry {
+
+    private final TagRepository tagRepo;
+    private final Cache<String, Tag> byLowerName;
+
+    /**
+     * @param cacheSize maximum number of tag names kept in memory
+     */
+    public TagRegistry(TagRepository tagRepo, @Value("${app.tags.cache-size:10000}") long cacheSize) {
+        this.tagRepo = tagRepo;
+        this.byLowerName = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Returns the tags for {@code names}, creating any that do not exist.
+     * Blank names are ignored and names differing only in case resolve to one tag.
+     */
+    @Transactional
+    @Timed(value = "snippet.tags.resolve", histogram = true)
+    public Set<Tag> resolve(List<String> names) {
+        return new HashSet<>(resolveByName(names).values());
+    }
+
+    /**
+     * Same as {@link #resolve} but keyed by lower-cased name, so a batch of snippets can
+     * resolve the union of their tags once and pick out their own.
+     */
+    @Transactional
+    @Timed(value = "snippet.tags.resolve", histogram = true)
+    public Map<String, Tag> resolveByName(List<String> names) {
+        Map<String, String> misses = new LinkedHashMap<>(normalize(names));
+        Map<String, Tag> tags = findExisting(misses);
+        if (misses.isEmpty()) return tags;
+
+        // Sorted so concurrent writers take the unique-index locks in the same order
+        String[] sorted = misses.values().stream().sorted().toArray(String[]::new);
+        for (Tag t : tagRepo.insertMissing(sorted)) {
+            String lower = t.getName().toLowerCase(Locale.ROOT);
+            if (misses.remove(lower) != null) tags.put(lower, remember(t));
+        }
+        // Lost the race to a concurrent insert of the same name
+        if (!misses.isEmpty()) tags.putAll(findExisting(misses));
+        return tags;
+    }
+
+    /**
+     * Existing tags for {@code names}, keyed by lower-cased name, without creating any.
+     * Names with no tag are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Tag> lookup(List<String> names) {
+        return findExisting(new LinkedHashMap<>(normalize(names)));
+    }
+
+    /** Cached or stored tags for the keys of {@code misses}, removing each key it finds. */
+    private Map<String, Tag> findExisting(Map<String, String> misses) {
+        Map<String, Tag> tags = new HashMap<>();
+        misses.keySet().removeIf(lower -> {
+            Tag cached = byLowerName.getIfPresent(lower);
+            if (cached != null) tags.put(lower, cached);
+            return cached != null;
+        });
+        if (misses.isEmpty()) return tags;
+
+        for (Tag t : tagRepo.findByLowerNameIn(misses.keySet())) {
+            String lower = t.getName().toLowerCase(Locale.ROOT);
+            if (misses.remove(lower) != null) tags.put(lower, remember(t));
+        }
+        return tags;
+    }
+
+    /**
+     * Trims names, drops blanks and collapses case-insensitive duplicates.
+     *
+     * @return lower-cased key → first spelling seen, in input order
+     */
+    public static Map<String, String> normalize(List<String> names) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (names == null) return out;
+        for (String raw : names) {
+            if (raw == null) continue;
+            String name = raw.trim();
+            if (!name.isEmpty()) out.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+        }
+        return out;
+    }
+
+    private Tag remember(Tag t) {
+        Tag copy = Tag.builder().id(t.getId()).name(t.getName()).build();
+        byLowerName.put(t.getName().toLowerCase(Locale.ROOT), copy);
+        return t;
+    }
+}
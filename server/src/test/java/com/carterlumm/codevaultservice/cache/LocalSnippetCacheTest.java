@@ -0,0 +1,33 @@
+package com.carterlumm.codevaultservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalSnippetCacheTest {
+
+    @Test
+    void loadsOnceUntilInvalidatedAndDoesNotCacheMisses() {
+        var registry = new SimpleMeterRegistry();
+        var cache = new LocalSnippetCache(registry, DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(id, k -> { loads.incrementAndGet(); return null; })).isEmpty();
+        assertThat(cache.get(id, k -> { loads.incrementAndGet(); return new CachedSnippet(0, "{}".getBytes()); })).isPresent();
+        assertThat(cache.get(id, k -> { loads.incrementAndGet(); return new CachedSnippet(0, "{}".getBytes()); })).isPresent();
+        assertThat(loads).hasValue(2);
+
+        cache.invalidate(id);
+        cache.get(id, k -> { loads.incrementAndGet(); return new CachedSnippet(0, "{}".getBytes()); });
+        assertThat(loads).hasValue(3);
+        assertThat(registry.get("cache.gets").tag("cache", "snippets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,86 @@
+package com.carterlumm.codevaultservice.config;
+
+import com.carterlumm.codevaultservice.event.SnippetChangedEvent;
+import com.carterlumm.codevaultservice.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource("main", new SimpleDriverDataSource(),
+            replicas("r1", "r2"), Duration.ofSeconds(10), Duration.ofSeconds(2), registry);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readsAlternateBetweenReplicas() {
+        assertThat(route(4)).containsExactly("r1", "r2", "r1", "r2");
+        assertThat(registry.get("datasource.routing").tag("pool", "r2").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void laggingOrUnreachableReplicasAreSkipped() {
+        routing.recordLag("r1", TimeUnit.SECONDS.toNanos(30));
+        assertThat(route(3)).containsOnly("r2");
+
+        routing.recordLag("r2", Long.MAX_VALUE);
+        assertThat(route(1)).containsExactly(ReplicaRoutingDataSource.PRIMARY);
+
+        routing.recordLag("r1", 0);
+        assertThat(route(2)).containsOnly("r1");
+    }
+
+    @Test
+    void writerReadsFromPrimaryUntilReplicasCatchUp() {
+        UUID alice = UUID.randomUUID();
+        routing.recordLag("r1", TimeUnit.SECONDS.toNanos(5));
+        routing.onSnippetChanged(new SnippetChangedEvent(
+                SnippetChangedEvent.Type.UPDATED, UUID.randomUUID(), alice, "t", "b", List.of(), 0));
+
+        authenticate(alice);
+        assertThat(route(2)).containsOnly(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(routing.isPinned(alice)).isTrue();
+
+        // Other users are unaffected
+        authenticate(UUID.randomUUID());
+        assertThat(route(1)).doesNotContain(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(registry.get("datasource.routing").tag("pool", "main").tag("reason", "read-your-writes")
+                .counter().count()).isEqualTo(2);
+    }
+
+    private List<Object> route(int n) {
+        var keys = new ArrayList<>();
+        for (int i = 0; i < n; i++) keys.add(routing.determineCurrentLookupKey());
+        return keys;
+    }
+
+    private static Map<String, DataSource> replicas(String... names) {
+        var replicas = new LinkedHashMap<String, DataSource>();
+        for (String name : names) replicas.put(name, new SimpleDriverDataSource());
+        return replicas;
+    }
+
+    private static void authenticate(UUID user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(user, "u@example.com"), null, List.of()));
+    }
+}
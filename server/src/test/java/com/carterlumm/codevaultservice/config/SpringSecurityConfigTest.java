@@ -0,0 +1,81 @@
+package com.carterlumm.codevaultservice.config;
+
+import com.carterlumm.codevaultservice.cache.CachedSnippet;
+import com.carterlumm.codevaultservice.controller.SnippetController;
+import com.carterlumm.codevaultservice.event.SnippetEventBroadcaster;
+import com.carterlumm.codevaultservice.security.RateLimiter;
+import com.carterlumm.codevaultservice.security.UserIdResolver;
+import com.carterlumm.codevaultservice.service.JwtService;
+import com.carterlumm.codevaultservice.service.SnippetBulkService;
+import com.carterlumm.codevaultservice.service.SnippetJsonWriter;
+import com.carterlumm.codevaultservice.service.SnippetService;
+import com.carterlumm.codevaultservice.service.SnippetSyncService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Anonymous access to the snippet API: endpoints that read the caller's own vault must
+ * answer 401 before a controller ever sees a null principal.
+ */
+@WebMvcTest(SnippetController.class)
+@Import({SpringSecurityConfig.class, SpringSecurityConfigTest.Metrics.class})
+class SpringSecurityConfigTest {
+
+    @Autowired private MockMvc mvc;
+
+    @MockitoBean private JwtService jwt;
+    @MockitoBean private UserIdResolver userIdResolver;
+    @MockitoBean private RateLimiter rateLimiter;
+    @MockitoBean private SnippetService service;
+    @MockitoBean private SnippetBulkService bulkService;
+    @MockitoBean private SnippetSyncService syncService;
+    @MockitoBean private SnippetEventBroadcaster broadcaster;
+    @MockitoBean private SnippetJsonWriter snippetWriter;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "/search?q=x", "/exists?hash=00", "/facets", "/export", "/changes", "/stream"})
+    void vaultReadsRequireAToken(String path) throws Exception {
+        mvc.perform(get("/api/v1/snippets" + path)).andExpect(status().isUnauthorized());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "/export"})
+    void invalidTokensAreUnauthorized(String path) throws Exception {
+        mvc.perform(get("/api/v1/snippets" + path).header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void singleSnippetsStayPublic() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(service.getCached(id)).thenReturn(Optional.of(new CachedSnippet(0, "{}".getBytes(StandardCharsets.UTF_8))));
+        mvc.perform(get("/api/v1/snippets/" + id)).andExpect(status().isOk());
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.carterlumm.codevaultservice.controller;
+
+import com.carterlumm.codevaultservice.cache.CachedSnippet;
+import com.carterlumm.codevaultservice.event.SnippetEventBroadcaster;
+import com.carterlumm.codevaultservice.service.SnippetBulkService;
+import com.carterlumm.codevaultservice.service.SnippetService;
+import com.carterlumm.codevaultservice.service.SnippetSyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * A single-snippet {@code GET} with the compression settings from application.yml: the weak
+ * validator lets Tomcat gzip it, and the same tag still answers {@code If-None-Match}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SnippetCompressionTest {
+
+    @LocalServerPort private int port;
+
+    @MockitoBean private SnippetService service;
+    @MockitoBean private SnippetBulkService bulkService;
+    @MockitoBean private SnippetSyncService syncService;
+    @MockitoBean private SnippetEventBroadcaster broadcaster;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void largeSnippetIsGzippedAndRevalidates() throws Exception {
+        UUID id = UUID.randomUUID();
+        String json = "{\"id\":\"" + id + "\",\"body\":\"" + "x".repeat(10_000) + "\"}";
+        when(service.getCached(id)).thenReturn(Optional.of(new CachedSnippet(3, json.getBytes(StandardCharsets.UTF_8))));
+
+        HttpResponse<byte[]> first = get(id, null);
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(first.body().length).isLessThan(json.length());
+        assertThat(first.headers().firstValue("ETag")).hasValue("W/\"3\"");
+
+        assertThat(get(id, "W/\"3\"").statusCode()).isEqualTo(304);
+    }
+
+    private HttpResponse<byte[]> get(UUID id, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/snippets/" + id))
+                .header("Accept-Encoding", "gzip");
+        if (ifNoneMatch != null) req.header("If-None-Match", ifNoneMatch);
+        return http.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class, DispatcherServletAutoConfiguration.class})
+    @Import(SnippetController.class)
+    static class Web {}
+}
@@ -0,0 +1,111 @@
+package com.carterlumm.codevaultservice.event;
+
+import com.carterlumm.codevaultservice.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnippetEventBroadcasterTest {
+
+    private final SnippetEventBroadcaster broadcaster =
+            new SnippetEventBroadcaster(Duration.ofHours(1), Duration.ofMinutes(1), 4, 2);
+
+    @AfterEach
+    void close() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void deliversOnlyToOwnersStreams() throws Exception {
+        UUID owner = UUID.randomUUID();
+        var mine = new RecordingEmitter(null);
+        var theirs = new RecordingEmitter(null);
+        broadcaster.register(owner, mine);
+        broadcaster.register(UUID.randomUUID(), theirs);
+
+        broadcaster.onSnippetChanged(changed(owner));
+
+        mine.awaitSends(1);
+        assertThat(mine.sent.get(0)).contains("event:snippet").contains("UPDATED");
+        assertThat(theirs.sent).isEmpty();
+    }
+
+    @Test
+    void slowClientIsToldToResyncAndDropped() throws Exception {
+        UUID owner = UUID.randomUUID();
+        var gate = new CountDownLatch(1);
+        var slow = new RecordingEmitter(gate);
+        broadcaster.register(owner, slow);
+
+        for (int i = 0; i < 10; i++) broadcaster.onSnippetChanged(changed(owner));
+        gate.countDown();
+
+        slow.awaitSends(2);
+        assertThat(slow.sent.get(slow.sent.size() - 1)).contains("event:resync");
+        assertThat(broadcaster.subscriberCount()).isZero();
+    }
+
+    @Test
+    void concurrentSubscribesStayWithinTheLimit() throws Exception {
+        UUID owner = UUID.randomUUID();
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 16; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                    broadcaster.register(owner, new RecordingEmitter(null));
+                } catch (TooManyRequestsException | InterruptedException ignored) {
+                    // the limit turned this one away
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread t : threads) t.join();
+
+        assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+        assertThatThrownBy(() -> broadcaster.register(owner, new RecordingEmitter(null)))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    private static SnippetChangedEvent changed(UUID owner) {
+        return new SnippetChangedEvent(SnippetChangedEvent.Type.UPDATED, UUID.randomUUID(), owner, "t", "b", List.of(), 0);
+    }
+
+    /** Captures the wire text of each event instead of writing to a response. */
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate;
+
+        RecordingEmitter(CountDownLatch gate) { this.gate = gate; }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                if (gate != null) gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+
+        void awaitSends(int n) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < n && System.nanoTime() < deadline) Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.carterlumm.codevaultservice.repository;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.model.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that the list read path issues a constant number of statements per page,
+ * however many snippets (and tags) the page holds.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snippets;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SnippetQueryRepositoryTest {
+
+    @Autowired private SnippetRepository snippets;
+    @Autowired private TagRepository tags;
+    @Autowired private EntityManager em;
+    @Autowired private EntityManagerFactory emf;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void seed() {
+        Tag java = tags.save(Tag.builder().name("java").build());
+        Tag sql = tags.save(Tag.builder().name("sql").build());
+        IntStream.range(0, 100).forEach(i -> snippets.save(Snippet.builder()
+                .userId(userId)
+                .title("Snippet " + i)
+                .body("x".repeat(1_000))
+                .tags(i % 2 == 0 ? Set.of(java, sql) : Set.of(java))
+                .build()));
+        em.flush();
+        em.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 50, 100})
+    void pageCostsTwoStatementsRegardlessOfSize(int pageSize) {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<SnippetRow> rows = snippets.findRows(
+                SnippetSpecifications.ownedBy(userId), Sort.by(Sort.Direction.DESC, "createdAt", "id"), pageSize, false);
+        var tagNames = snippets.findTagNames(userId, rows.stream().map(SnippetRow::id).toList());
+
+        assertThat(rows).hasSize(pageSize);
+        assertThat(tagNames.values()).allSatisfy(names -> assertThat(names).contains("java"));
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(stats.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void summaryModeTruncatesBodyInSql() {
+        List<SnippetRow> rows = snippets.findRows(
+                SnippetSpecifications.ownedBy(userId), Sort.by("createdAt"), 5, true);
+
+        assertThat(rows).allSatisfy(r ->
+                assertThat(r.body()).hasSize(SnippetQueryRepository.SUMMARY_BODY_LENGTH));
+    }
+
+    @Test
+    void tagFiltersRequireEveryTagAndLanguageFiltersAcceptAny() {
+        Tag java = tags.findByLowerNameIn(List.of("java")).get(0);
+        Tag sql = tags.findByLowerNameIn(List.of("sql")).get(0);
+        UUID owner = UUID.randomUUID();
+        snippets.save(Snippet.builder().userId(owner).title("a").body("a").language("java").tags(Set.of(java, sql)).build());
+        snippets.save(Snippet.builder().userId(owner).title("b").body("b").language("kotlin").tags(Set.of(java)).build());
+        snippets.save(Snippet.builder().userId(owner).title("c").body("c").language("sql").tags(Set.of(sql)).build());
+        em.flush();
+        em.clear();
+
+        var owned = SnippetSpecifications.ownedBy(owner);
+        assertThat(titles(owned.and(SnippetSpecifications.hasTag(java.getId()))
+                .and(SnippetSpecifications.hasTag(sql.getId())))).containsExactly("a");
+        assertThat(titles(owned.and(SnippetSpecifications.languageIn(List.of("java", "kotlin")))))
+                .containsExactly("a", "b");
+        assertThat(titles(owned.and(SnippetSpecifications.hasTag(sql.getId()))
+                .and(SnippetSpecifications.languageIn(List.of("kotlin"))))).isEmpty();
+    }
+
+    @Test
+    void tagChangesBumpVersionAndVaultStamp() {
+        VaultStamp before = snippets.stampByUserId(userId);
+        Snippet s = snippets.findRows(SnippetSpecifications.ownedBy(userId), Sort.by("createdAt"), 1, true)
+                .stream().findFirst().map(r -> snippets.findById(r.id()).orElseThrow()).orElseThrow();
+        long version = s.getVersion();
+
+        s.setTags(Set.of(tags.save(Tag.builder().name("kotlin").build())));
+        em.flush();
+        em.clear();
+
+        assertThat(snippets.findRowsByIds(userId, List.of(s.getId()), true).get(0).version()).isEqualTo(version + 1);
+        VaultStamp after = snippets.stampByUserId(userId);
+        assertThat(after.count()).isEqualTo(100);
+        assertThat(after.versions()).isEqualTo(before.versions() + 1);
+        assertThat(after.lastModified()).isAfter(before.lastModified());
+    }
+
+    private List<String> titles(Specification<Snippet> spec) {
+        return snippets.findRows(spec, Sort.by("title"), 10, true).stream().map(SnippetRow::title).toList();
+    }
+}
@@ -0,0 +1,135 @@
+package com.carterlumm.codevaultservice.search;
+
+import com.carterlumm.codevaultservice.event.SnippetChangedEvent;
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.repository.SnippetBlobRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import com.carterlumm.codevaultservice.repository.VaultStamp;
+import com.carterlumm.codevaultservice.service.SnippetBodyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class InMemorySnippetSearchEngineTest {
+
+    @Autowired private SnippetRepository snippets;
+    @Autowired private SnippetBlobRepository blobs;
+    @Autowired private EntityManager em;
+
+    @Test
+    void shardFollowsChangesMadeWithoutEventsAndIndexesFullBodies() {
+        var bodyStore = new SnippetBodyStore(blobs, 1_000, 100, 3);
+        var engine = engine(bodyStore, Duration.ZERO);
+        UUID userId = UUID.randomUUID();
+        Snippet first = save(bodyStore, userId, "Retry helper", "retry with backoff");
+
+        assertThat(ids(engine.search(userId, "backoff", 10))).containsExactly(first.getId());
+
+        // Written as another instance would: no event reaches this engine
+        Snippet large = save(bodyStore, userId, "Build log", "x ".repeat(1_000) + "zebrafish");
+        assertThat(ids(engine.search(userId, "zebrafish", 10))).containsExactly(large.getId());
+
+        snippets.deleteById(first.getId());
+        em.flush();
+        assertThat(engine.search(userId, "backoff", 10)).isEmpty();
+    }
+
+    @Test
+    void shardAppliesCommittedChangesWithoutRebuilding() {
+        var bodyStore = new SnippetBodyStore(blobs, 1_000, 100, 3);
+        var engine = engine(bodyStore, Duration.ofMinutes(10));
+        UUID userId = UUID.randomUUID();
+        Snippet first = save(bodyStore, userId, "Retry helper", "retry with backoff");
+        assertThat(ids(engine.search(userId, "backoff", 10))).containsExactly(first.getId());
+
+        String body = "x ".repeat(1_000) + "zebrafish";
+        Snippet large = save(bodyStore, userId, "Build log", body);
+        assertThat(engine.search(userId, "zebrafish", 10)).isEmpty();   // no event yet, recheck not due
+        engine.onSnippetChanged(SnippetChangedEvent.created(large, body));
+        assertThat(ids(engine.search(userId, "zebrafish", 10))).containsExactly(large.getId());
+
+        first.setTitle("Jitter helper");
+        engine.onSnippetChanged(SnippetChangedEvent.updated(first, "retry with jitter"));
+        assertThat(engine.search(userId, "backoff", 10)).isEmpty();
+        assertThat(ids(engine.search(userId, "jitter", 10))).containsExactly(first.getId());
+
+        engine.onSnippetChanged(SnippetChangedEvent.deleted(large));
+        assertThat(engine.search(userId, "zebrafish", 10)).isEmpty();
+    }
+
+    private InMemorySnippetSearchEngine engine(SnippetBodyStore bodyStore, Duration recheckInterval) {
+        return new InMemorySnippetSearchEngine(snippets, bodyStore, new SimpleMeterRegistry(),
+                1_000, Duration.ofMinutes(10), recheckInterval);
+    }
+
+    private Snippet save(SnippetBodyStore bodyStore, UUID userId, String title, String body) {
+        Snippet s = Snippet.builder().userId(userId).title(title).build();
+        SnippetBodyStore.Payload payload = bodyStore.apply(s, body);
+        s = snippets.save(s);
+        bodyStore.store(payload, null);
+        em.flush();
+        return s;
+    }
+
+    @Test
+    void tokenizerSplitsCamelAndSnakeCase() {
+        assertThat(CodeTokenizer.queryTerms("getUserById(user_id); HTTPServer"))
+                .containsExactly("get", "user", "by", "id", "http", "server");
+        assertThat(CodeTokenizer.indexTerms("parseJson")).contains("parse", "json", "parsejson");
+    }
+
+    @Test
+    void shardMatchesAllTermsAndFuzzyTitles() {
+        var shard = new InMemorySnippetSearchEngine.Shard(new VaultStamp(0, 0, null));
+        UUID fetch = UUID.randomUUID();
+        UUID debounce = UUID.randomUUID();
+        shard.put(fetch, "Fetch user profile", "const user = await getUserById(id);", List.of("js"));
+        shard.put(debounce, "Debounce helper", "function debounce(fn, ms) {}", List.of("utils"));
+
+        assertThat(ids(shard.search("get_user", 10))).containsExactly(fetch);
+        assertThat(ids(shard.search("debounse", 10))).containsExactly(debounce);
+        assertThat(shard.search("user throttle", 10)).isEmpty();
+
+        shard.remove(fetch);
+        assertThat(shard.search("user", 10)).isEmpty();
+    }
+
+    @Test
+    void shardReturnsTopNByRank() {
+        var shard = new InMemorySnippetSearchEngine.Shard(new VaultStamp(0, 0, null));
+        for (int i = 0; i < 20; i++) {
+            shard.put(UUID.randomUUID(), "Snippet " + i, "retry with backoff", List.of());
+        }
+        UUID titled = UUID.randomUUID();
+        shard.put(titled, "Retry backoff", "retry with backoff", List.of());
+
+        List<SearchHit> hits = shard.search("retry backoff", 5);
+        assertThat(hits).hasSize(5);
+        assertThat(hits.get(0).id()).isEqualTo(titled);
+    }
+
+    private static List<UUID> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+}
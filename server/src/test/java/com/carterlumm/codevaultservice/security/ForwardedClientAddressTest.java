@@ -0,0 +1,74 @@
+package com.carterlumm.codevaultservice.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Anonymous callers behind the load balancer: with the forward-headers strategy from
+ * application.yml, Tomcat resolves the client from {@code X-Forwarded-For} when the hop in
+ * front (here loopback) is a trusted proxy, so each client gets its own bucket rather than
+ * all of them sharing the proxy's.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.auth.rate=1/1m",
+        "app.rate-limit.auth.burst=1"
+})
+class ForwardedClientAddressTest {
+
+    @LocalServerPort private int port;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void forwardedClientsAreLimitedSeparately() throws Exception {
+        assertThat(login("198.51.100.1")).isNotEqualTo(429);
+        assertThat(login("198.51.100.1")).isEqualTo(429);
+        assertThat(login("198.51.100.2")).isNotEqualTo(429);
+        // The proxy appends the address it saw; the right-most untrusted entry is the client
+        assertThat(login("203.0.113.9, 198.51.100.2")).isEqualTo(429);
+    }
+
+    private int login(String forwardedFor) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class, DispatcherServletAutoConfiguration.class})
+    @Import(RateLimiter.class)
+    static class Web {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimiter limiter) {
+            return new FilterRegistrationBean<>(new RateLimitFilter(limiter));
+        }
+    }
+}
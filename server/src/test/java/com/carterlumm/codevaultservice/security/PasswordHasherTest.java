@@ -0,0 +1,61 @@
+package com.carterlumm.codevaultservice.security;
+
+import com.carterlumm.codevaultservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence raw) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(raw);
+            }
+        };
+        var registry = new SimpleMeterRegistry();
+        var hasher = new PasswordHasher(blocking, registry, 1, 1);
+
+        var running = CompletableFuture.supplyAsync(() -> hasher.encode("first-password"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = CompletableFuture.supplyAsync(() -> hasher.encode("second-password"));
+        while (registry.get("executor.queued").gauge().value() < 1) Thread.onSpinWait();
+
+        assertThatThrownBy(() -> hasher.encode("third-password"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getHeaders().getFirst("Retry-After")).isEqualTo("1"));
+        assertThat(registry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(blocking.matches("first-password", running.get(5, TimeUnit.SECONDS))).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).startsWith("$2a$04$");
+    }
+
+    @Test
+    void flagsHashesWeakerThanConfiguredStrength() {
+        var hasher = new PasswordHasher(new BCryptPasswordEncoder(5), new SimpleMeterRegistry(), 1, 4);
+        String weak = new BCryptPasswordEncoder(4).encode("password1");
+
+        assertThat(hasher.matches("password1", weak)).isTrue();
+        assertThat(hasher.needsRehash(weak)).isTrue();
+        assertThat(hasher.needsRehash(hasher.encode("password1"))).isFalse();
+    }
+}
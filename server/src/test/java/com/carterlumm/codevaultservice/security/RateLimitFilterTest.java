@@ -0,0 +1,98 @@
+package com.carterlumm.codevaultservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RateLimiter limiter = new RateLimiter(registry, true, 1_000,
+            "3/1m", 3, "2/1s", 2, "20/1s", 40, "50/1s", 100);
+    private final RateLimitFilter filter = new RateLimitFilter(limiter);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void burstThenRetryAfterPerUserAndGroup() throws Exception {
+        UUID alice = UUID.randomUUID();
+        assertThat(statuses(alice, "/api/v1/snippets/search", 3)).containsExactly(200, 200, 429);
+        MockHttpServletResponse limited = send(alice, "GET", "/api/v1/snippets/search");
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("1");
+
+        // Other users and other route groups have their own buckets
+        assertThat(statuses(UUID.randomUUID(), "/api/v1/snippets/search", 2)).containsExactly(200, 200);
+        assertThat(send(alice, "GET", "/api/v1/snippets").getStatus()).isEqualTo(200);
+        assertThat(registry.get("http.server.requests.throttled").tag("group", "search").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void authEndpointsAreLimitedByAddressEvenWithAToken() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(UUID.randomUUID(), "POST", "/api/auth/login").getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse limited = send(UUID.randomUUID(), "POST", "/api/auth/login");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(limited.getHeader("Retry-After"))).isBetween(19L, 20L);
+    }
+
+    @Test
+    void bucketsRefillAtTheConfiguredRate() {
+        var bucket = new AtomicLong(Long.MIN_VALUE);
+        var limit = RateLimiter.Limit.of(10, Duration.ofSeconds(1), 2);
+        long t0 = TimeUnit.SECONDS.toNanos(1_000);
+        long t1 = t0 + TimeUnit.MILLISECONDS.toNanos(100);
+
+        assertThat(RateLimiter.acquire(bucket, limit, t0)).isZero();
+        assertThat(RateLimiter.acquire(bucket, limit, t0)).isZero();
+        assertThat(RateLimiter.acquire(bucket, limit, t0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(RateLimiter.acquire(bucket, limit, t1)).isZero();
+        assertThat(RateLimiter.acquire(bucket, limit, t1)).isPositive();
+    }
+
+    @Test
+    void sweepDropsOnlyRefilledBuckets() throws Exception {
+        send(UUID.randomUUID(), "GET", "/api/v1/snippets");
+        send(UUID.randomUUID(), "POST", "/api/auth/login");
+        assertThat(limiter.bucketCount()).isEqualTo(2);
+
+        Thread.sleep(50);   // the read bucket owes 20ms; the auth bucket owes 20s
+        limiter.sweep();
+        assertThat(limiter.bucketCount()).isEqualTo(1);
+    }
+
+    private List<Integer> statuses(UUID user, String path, int n) throws Exception {
+        var statuses = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) statuses.add(send(user, "GET", path).getStatus());
+        return statuses;
+    }
+
+    private MockHttpServletResponse send(UUID user, String method, String path) throws Exception {
+        var auth = new UsernamePasswordAuthenticationToken(new AuthenticatedUser(user, "u@example.com"), null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        var req = new MockHttpServletRequest(method, path);
+        req.setRemoteAddr("203.0.113.7");
+        var res = new MockHttpServletResponse();
+        filter.doFilter(req, res, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return res;
+    }
+}
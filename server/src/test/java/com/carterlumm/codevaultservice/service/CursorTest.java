@@ -0,0 +1,52 @@
+package com.carterlumm.codevaultservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorTest {
+
+    @Test
+    void rankCursorsRoundTrip() {
+        UUID id = UUID.randomUUID();
+        Cursor cursor = Cursor.decode(Cursor.ofRank(0.25, 40, id).encode());
+
+        assertThat(cursor.seen()).isEqualTo(40);
+        assertThat(cursor.rank()).isEqualTo(0.25);
+        assertThat(cursor.id()).isEqualTo(id);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"x@0.5", "-1@0.5", "99999999999@0.5", "@0.5", "3@x", "3@NaN", "3@Infinity", "3"})
+    void forgedRankPositionsAreBadRequests(String position) {
+        Cursor cursor = Cursor.decode(forge(position));
+
+        assertThatThrownBy(() -> {
+            cursor.seen();
+            cursor.rank();
+        }).isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "bm8tc2VwYXJhdG9y", "MjAyNi0wMS0wMVQwMDowMDowMFp8bm90LWEtdXVpZA"})
+    void malformedTokensAreBadRequests(String token) {
+        assertThatThrownBy(() -> Cursor.decode(token).timestamp())
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private static String forge(String position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((position + "|" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.repository.SnippetBlobRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bodies;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SnippetBodyStoreTest {
+
+    @Autowired private SnippetRepository snippets;
+    @Autowired private SnippetBlobRepository blobs;
+    @Autowired private EntityManager em;
+
+    private final UUID userId = UUID.randomUUID();
+    private SnippetBodyStore bodyStore;
+
+    @BeforeEach
+    void createStore() {
+        // Bodies over 1000 chars go out of line, keeping a 100-char preview
+        bodyStore = new SnippetBodyStore(blobs, 1_000, 100, 3);
+    }
+
+    @Test
+    void largeBodiesAreStoredCompressedAndReadBackInFull() {
+        String log = "2024-01-01 INFO request handled in 3ms\n".repeat(500);
+        Snippet big = Snippet.builder().userId(userId).title("Log dump").build();
+        var payload = bodyStore.apply(big, log);
+        snippets.save(big);
+        bodyStore.store(payload, null);
+        em.flush();
+        em.clear();
+
+        assertThat(blobs.findById(payload.hash()).orElseThrow().getData().length).isLessThan(log.length() / 20);
+        SnippetRow row = snippets.findRowsByIds(userId, List.of(big.getId()), false).get(0);
+        assertThat(row.bodyExternal()).isTrue();
+        assertThat(row.body()).hasSize(100);
+        assertThat(row.bodyLength()).isEqualTo(log.length());
+        assertThat(bodyStore.loadFull(userId, List.of(row))).containsEntry(big.getId(), log);
+    }
+
+    @Test
+    void identicalBodiesShareOneReferenceCountedBlob() {
+        String bundle = "export const noop = () => {};\n".repeat(100);
+        List<Snippet> copies = IntStream.range(0, 2).mapToObj(i -> {
+            Snippet s = Snippet.builder().userId(UUID.randomUUID()).title("lodash " + i).build();
+            var payload = bodyStore.apply(s, bundle);
+            snippets.save(s);
+            bodyStore.store(payload, null);
+            return s;
+        }).toList();
+        em.flush();
+        em.clear();
+
+        String hash = copies.get(0).getBodyHash();
+        assertThat(blobs.count()).isEqualTo(1);
+        assertThat(blobs.findById(hash).orElseThrow().getRefCount()).isEqualTo(2);
+
+        Snippet resaved = snippets.findById(copies.get(0).getId()).orElseThrow();
+        bodyStore.store(bodyStore.apply(resaved, bundle), SnippetBodyStore.blobHash(resaved));
+        em.flush();
+        em.clear();
+        assertThat(blobs.findById(hash).orElseThrow().getRefCount()).isEqualTo(2);
+        assertThat(snippets.findById(resaved.getId()).orElseThrow().getVersion()).isEqualTo(resaved.getVersion());
+
+        copies.forEach(c -> bodyStore.release(snippets.findById(c.getId()).orElseThrow()));
+        em.flush();
+        em.clear();
+        assertThat(blobs.findById(hash)).isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.repository.SnippetBlobRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import com.carterlumm.codevaultservice.repository.TagRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SnippetBulkServiceTest {
+
+    @Autowired private SnippetRepository snippets;
+    @Autowired private SnippetBlobRepository blobs;
+    @Autowired private TagRepository tags;
+    @Autowired private PlatformTransactionManager txManager;
+    @Autowired private EntityManager em;
+
+    @Test
+    void exportLeavesNothingInThePersistenceContext() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        SnippetBodyStore bodyStore = new SnippetBodyStore(blobs, 1_000, 100, 3);
+        SnippetBulkService bulk = new SnippetBulkServiceImpl(snippets, new TagRegistry(tags, 100), mapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), event -> {}, txManager,
+                bodyStore, new SnippetJsonWriter(mapper));
+        UUID userId = UUID.randomUUID();
+        int count = SnippetBulkServiceImpl.BATCH_SIZE + 10;
+        for (int i = 0; i < count; i++) {
+            Snippet s = Snippet.builder().userId(userId).title("Log " + i).build();
+            var payload = bodyStore.apply(s, "line " + i + "\n".repeat(1_000));
+            snippets.save(s);
+            bodyStore.store(payload, null);
+        }
+        em.flush();
+        em.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulk.exportNdjson(userId, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(count);
+        assertThat(mapper.readTree(lines[0]).get("body").asText()).hasSize(("line 0" + "\n".repeat(1_000)).length());
+        // Rows, tags and out-of-line bodies are all read as plain values
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+}
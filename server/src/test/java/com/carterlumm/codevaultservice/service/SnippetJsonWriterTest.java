@@ -0,0 +1,115 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.dto.CursorPage;
+import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.dto.SnippetRowPage;
+import com.carterlumm.codevaultservice.repository.SnippetRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.StringWriter;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnippetJsonWriterTest {
+
+    // Configured as Boot's JacksonAutoConfiguration configures the application's mapper
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final SnippetJsonWriter writer = new SnippetJsonWriter(mapper);
+
+    @Test
+    void pageIsTheJsonJacksonWritesForCursorPage() throws Exception {
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("source", "https://example.com/a?b=1&c=\"2\"");
+        meta.put("line", 42);
+        meta.put("nested", Map.of("ok", true, "list", List.of(1, "two", 2.5, 10_000_000_000L)));
+        meta.put("empty", null);
+        // Not one of JSON's own types: written through the mapper
+        meta.put("seen", OffsetDateTime.of(2026, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC));
+        meta.put("ratio", 0.5f);
+        SnippetRow full = new SnippetRow(UUID.randomUUID(), "Tïtle \"quoted\"", "line 1\n\tline 2 ☃ </script>",
+                "https://example.com/favicon.ico", "java", meta,
+                OffsetDateTime.of(2026, 3, 1, 12, 0, 0, 120_000_000, ZoneOffset.ofHours(2)),
+                OffsetDateTime.of(2026, 3, 2, 8, 30, 15, 0, ZoneOffset.UTC), 3, 24, false);
+        SnippetRow bare = new SnippetRow(UUID.randomUUID(), "bare", "", null, null, null,
+                OffsetDateTime.of(2025, 12, 31, 23, 59, 59, 999_999_000, ZoneOffset.UTC),
+                OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 1, ZoneOffset.UTC), 0, 0, false);
+        Map<UUID, List<String>> tags = Map.of(full.id(), List.of("java", "strings"));
+
+        for (String next : new String[] {"Y3Vyc29y", null}) {
+            var page = new SnippetRowPage(List.of(full, bare), tags, next, next == null);
+            var expected = new CursorPage<>(List.of(
+                    SnippetDto.from(full, tags.get(full.id())), SnippetDto.from(bare, List.of())), next, next == null);
+
+            assertThat(write(gen -> writer.writePage(gen, page))).isEqualTo(mapper.writeValueAsString(expected));
+        }
+        assertThat(write(gen -> writer.writePage(gen, SnippetRowPage.empty())))
+                .isEqualTo(mapper.writeValueAsString(new CursorPage<>(List.of(), null, true)));
+    }
+
+    @Test
+    void idsAndTimestampsMatchTheJdkFormatters() {
+        char[] buffer = writer.newBuffer();
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            assertThat(new String(buffer, 0, SnippetJsonWriter.formatUuid(id, buffer))).isEqualTo(id.toString());
+        }
+        UUID fixed = new UUID(0x0000000100020003L, 0x000400000000000aL);
+        assertThat(new String(buffer, 0, SnippetJsonWriter.formatUuid(fixed, buffer))).isEqualTo(fixed.toString());
+
+        int[] nanos = {0, 1, 10, 120_000_000, 123_456_789, 999_999_999, 500_000};
+        ZoneOffset[] offsets = {ZoneOffset.UTC, ZoneOffset.ofHours(2), ZoneOffset.ofHoursMinutes(-9, -30),
+                ZoneOffset.ofHoursMinutes(5, 45), ZoneOffset.MAX, ZoneOffset.MIN};
+        for (int year : new int[] {0, 7, 999, 2026, 9999}) {
+            for (int nano : nanos) {
+                for (ZoneOffset offset : offsets) {
+                    OffsetDateTime value = OffsetDateTime.of(year, 2, 3, 4, 5, 6, nano, offset);
+                    int length = SnippetJsonWriter.formatTimestamp(value, buffer);
+                    assertThat(new String(buffer, 0, length))
+                            .isEqualTo(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value));
+                }
+            }
+        }
+        // Left to DateTimeFormatter
+        assertThat(SnippetJsonWriter.formatTimestamp(
+                OffsetDateTime.of(10_000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), buffer)).isZero();
+        assertThat(SnippetJsonWriter.formatTimestamp(
+                OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHoursMinutesSeconds(1, 0, 30)), buffer)).isZero();
+    }
+
+    @Test
+    void timestampsOutsideTheFastPathStillMatchJackson() throws Exception {
+        OffsetDateTime farFuture = OffsetDateTime.of(12_026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime oddOffset = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHoursMinutesSeconds(1, 0, 30));
+        SnippetRow row = new SnippetRow(UUID.randomUUID(), "t", "b", null, null, Map.of(),
+                farFuture, oddOffset, 0, 1, false);
+        var page = new SnippetRowPage(List.of(row), Map.of(), null, true);
+
+        assertThat(write(gen -> writer.writePage(gen, page))).isEqualTo(mapper.writeValueAsString(
+                new CursorPage<>(List.of(SnippetDto.from(row, List.of())), null, true)));
+    }
+
+    private String write(GeneratorAction action) throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            action.write(gen);
+        }
+        return out.toString();
+    }
+
+    private interface GeneratorAction {
+        void write(JsonGenerator gen) throws Exception;
+    }
+}
@@ -0,0 +1,101 @@
+package com.carterlumm.codevaultservice.service;
+
+import com.carterlumm.codevaultservice.dto.SnippetChanges;
+import com.carterlumm.codevaultservice.dto.SnippetDto;
+import com.carterlumm.codevaultservice.model.Snippet;
+import com.carterlumm.codevaultservice.repository.SnippetBlobRepository;
+import com.carterlumm.codevaultservice.repository.SnippetRepository;
+import com.carterlumm.codevaultservice.repository.SnippetTombstoneRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sync;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SnippetSyncServiceTest {
+
+    @Autowired private SnippetRepository snippets;
+    @Autowired private SnippetTombstoneRepository tombstones;
+    @Autowired private SnippetBlobRepository blobs;
+    @Autowired private EntityManager em;
+
+    private final UUID userId = UUID.randomUUID();
+    private SnippetSyncService sync;
+    private SnippetBodyStore bodyStore;
+    private List<Snippet> seeded;
+
+    @BeforeEach
+    void seed() {
+        bodyStore = new SnippetBodyStore(blobs, 1_000, 100, 3);
+        sync = new SnippetSyncServiceImpl(snippets, tombstones, bodyStore, Duration.ZERO, Duration.ofDays(30));
+        seeded = IntStream.range(0, 3).mapToObj(i -> snippets.save(Snippet.builder()
+                .userId(userId)
+                .title("Snippet " + i)
+                .body("body " + i)
+                .build())).toList();
+        snippets.save(Snippet.builder().userId(UUID.randomUUID()).title("Other user").body("x").build());
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void pagesThroughVaultThenReturnsOnlyDeltas() {
+        SnippetChanges first = sync.changes(userId, null, 2);
+        assertThat(first.updated()).hasSize(2);
+        assertThat(first.hasMore()).isTrue();
+
+        SnippetChanges second = sync.changes(userId, first.since(), 2);
+        assertThat(second.updated()).hasSize(1);
+        assertThat(second.hasMore()).isFalse();
+        assertThat(sync.changes(userId, second.since(), 2).updated()).isEmpty();
+
+        Snippet edited = snippets.findById(seeded.get(0).getId()).orElseThrow();
+        edited.setTitle("Edited");
+        Snippet removed = seeded.get(1);
+        snippets.deleteById(removed.getId());
+        tombstones.insert(removed.getId(), userId, OffsetDateTime.now());
+        em.flush();
+        em.clear();
+
+        SnippetChanges delta = sync.changes(userId, second.since(), 10);
+        assertThat(delta.updated()).extracting(SnippetDto::title).containsExactly("Edited");
+        assertThat(delta.deleted()).containsExactly(removed.getId());
+        assertThat(delta.hasMore()).isFalse();
+    }
+
+    @Test
+    void outOfLineBodiesAreSyncedInFull() {
+        String log = "2024-01-01 INFO request handled in 3ms\n".repeat(500);
+        Snippet big = Snippet.builder().userId(userId).title("Log dump").build();
+        var payload = bodyStore.apply(big, log);
+        snippets.save(big);
+        bodyStore.store(payload, null);
+        em.flush();
+        em.clear();
+
+        SnippetChanges changes = sync.changes(userId, null, 10);
+        assertThat(changes.updated()).filteredOn(d -> d.id().equals(big.getId()))
+                .singleElement().extracting(SnippetDto::body).isEqualTo(log);
+    }
+}